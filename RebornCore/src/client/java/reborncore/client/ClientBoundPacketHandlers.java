@@ -29,16 +29,20 @@ import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.gui.screen.Screen;
 import net.minecraft.client.gui.screen.ingame.HandledScreen;
+import net.minecraft.network.packet.CustomPayload;
 import net.minecraft.screen.ScreenHandler;
 import net.minecraft.world.World;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reborncore.RebornCore;
+import reborncore.common.blockentity.DescriptionSync;
 import reborncore.common.blockentity.FluidConfiguration;
 import reborncore.common.blockentity.MachineBaseBlockEntity;
 import reborncore.common.blockentity.SlotConfiguration;
 import reborncore.common.network.clientbound.ChunkSyncPayload;
 import reborncore.common.network.clientbound.CustomDescriptionPayload;
+import reborncore.common.network.clientbound.DescriptionBatchPayload;
+import reborncore.common.network.clientbound.DescriptionSyncPayload;
 import reborncore.common.network.clientbound.FluidConfigSyncPayload;
 import reborncore.common.network.clientbound.QueueItemStacksPayload;
 import reborncore.common.network.clientbound.ScreenHandlerUpdatePayload;
@@ -49,12 +53,16 @@ public class ClientBoundPacketHandlers {
 	private static final Logger LOGGER = LoggerFactory.getLogger(ClientBoundPacketHandlers.class);
 
 	public static void init() {
-		ClientPlayNetworking.registerGlobalReceiver(CustomDescriptionPayload.ID, (payload, context) -> {
-			World world = MinecraftClient.getInstance().world;
-			if (world.isChunkLoaded(payload.pos())) {
-				BlockEntity blockentity = world.getBlockEntity(payload.pos());
-				if (blockentity != null && payload.nbt() != null) {
-					blockentity.read(payload.nbt(), world.getRegistryManager());
+		ClientPlayNetworking.registerGlobalReceiver(CustomDescriptionPayload.ID, (payload, context) -> handleCustomDescription(payload));
+
+		ClientPlayNetworking.registerGlobalReceiver(DescriptionSyncPayload.ID, (payload, context) -> handleDescriptionSync(payload));
+
+		ClientPlayNetworking.registerGlobalReceiver(DescriptionBatchPayload.ID, (payload, context) -> {
+			for (CustomPayload entry : payload.payloads()) {
+				if (entry instanceof CustomDescriptionPayload description) {
+					handleCustomDescription(description);
+				} else if (entry instanceof DescriptionSyncPayload sync) {
+					handleDescriptionSync(sync);
 				}
 			}
 		});
@@ -100,4 +108,24 @@ public class ClientBoundPacketHandlers {
 		ClientPlayNetworking.registerGlobalReceiver(ChunkSyncPayload.ID, (payload, context) -> ClientChunkManager.setLoadedChunks(payload.chunks()));
 		ClientPlayNetworking.registerGlobalReceiver(QueueItemStacksPayload.ID, (payload, context) -> ItemStackRenderManager.RENDER_QUEUE.addAll(payload.stacks()));
 	}
+
+	private static void handleCustomDescription(CustomDescriptionPayload payload) {
+		World world = MinecraftClient.getInstance().world;
+		if (world.isChunkLoaded(payload.pos())) {
+			BlockEntity blockentity = world.getBlockEntity(payload.pos());
+			if (blockentity != null && payload.nbt() != null) {
+				blockentity.read(payload.nbt(), world.getRegistryManager());
+			}
+		}
+	}
+
+	private static void handleDescriptionSync(DescriptionSyncPayload payload) {
+		World world = MinecraftClient.getInstance().world;
+		if (world.isChunkLoaded(payload.pos())) {
+			BlockEntity blockentity = world.getBlockEntity(payload.pos());
+			if (blockentity instanceof DescriptionSync.Provider provider) {
+				provider.getDescriptionSync().apply(payload.data(), world.getRegistryManager());
+			}
+		}
+	}
 }
@@ -28,6 +28,7 @@ import net.fabricmc.api.EnvType;
 import net.fabricmc.api.ModInitializer;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerBlockEntityEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerEntityEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
 import net.fabricmc.fabric.api.transfer.v1.fluid.FluidStorage;
@@ -49,12 +50,15 @@ import reborncore.common.config.Configuration;
 import reborncore.common.misc.ModSounds;
 import reborncore.common.misc.RebornCoreTags;
 import reborncore.common.multiblock.MultiblockRegistry;
+import reborncore.common.network.DescriptionBatcher;
 import reborncore.common.network.Packets;
 import reborncore.common.network.ServerBoundPackets;
 import reborncore.common.powerSystem.PowerAcceptorBlockEntity;
 import reborncore.common.recipes.PaddedShapedRecipe;
+import reborncore.common.util.BlockChangeTracker;
 import reborncore.common.util.CalenderUtils;
 import reborncore.common.util.GenericWrenchHelper;
+import reborncore.common.util.PlayerIndex;
 import team.reborn.energy.api.EnergyStorage;
 
 import java.util.Locale;
@@ -101,6 +105,8 @@ public class RebornCore implements ModInitializer {
 
 		// packets
 		ServerBoundPackets.init();
+		ServerTickEvents.END_SERVER_TICK.register(DescriptionBatcher::flush);
+		ServerLifecycleEvents.SERVER_STOPPED.register(server -> DescriptionBatcher.clear());
 
 		RebornCoreCommands.setup();
 
@@ -116,6 +122,11 @@ public class RebornCore implements ModInitializer {
 
 		ServerWorldEvents.LOAD.register((server, world) -> ChunkLoaderManager.get(world).onServerWorldLoad(world));
 		ServerTickEvents.START_WORLD_TICK.register(world -> ChunkLoaderManager.get(world).onServerWorldTick(world));
+		ServerTickEvents.START_WORLD_TICK.register(PlayerIndex::onWorldTick);
+		ServerWorldEvents.UNLOAD.register((server, world) -> PlayerIndex.onWorldUnload(world));
+		ServerLifecycleEvents.SERVER_STOPPED.register(server -> PlayerIndex.clear());
+		ServerWorldEvents.UNLOAD.register((server, world) -> BlockChangeTracker.onWorldUnload(world));
+		ServerLifecycleEvents.SERVER_STOPPED.register(server -> BlockChangeTracker.clear());
 
 		ServerEntityEvents.EQUIPMENT_CHANGE.register((livingEntity, equipmentSlot, previousStack, currentStack) -> {
 			if (livingEntity instanceof PlayerEntity playerEntity
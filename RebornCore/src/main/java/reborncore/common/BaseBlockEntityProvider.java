@@ -39,6 +39,7 @@ import net.minecraft.util.collection.DefaultedList;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 import org.jetbrains.annotations.Nullable;
+import reborncore.common.blockentity.MachineBaseBlockEntity;
 
 import java.util.Optional;
 
@@ -73,6 +74,14 @@ public abstract class BaseBlockEntityProvider extends Block implements BlockEnti
 		nbtComponent.applyToBlockEntity(world.getBlockEntity(pos), world.getRegistryManager());
 	}
 
+	@Override
+	public void neighborUpdate(BlockState state, World world, BlockPos pos, Block sourceBlock, BlockPos sourcePos, boolean notify) {
+		if (world.getBlockEntity(pos) instanceof MachineBaseBlockEntity machine) {
+			machine.onNeighborUpdate(sourcePos);
+		}
+		super.neighborUpdate(state, world, pos, sourceBlock, sourcePos, notify);
+	}
+
 	public <T extends BlockEntity> BlockEntityTicker<T> getTicker(World world, BlockState state, BlockEntityType<T> type) {
 		return (world1, pos, state1, blockEntity) -> {
 			if (blockEntity instanceof BlockEntityTicker) {
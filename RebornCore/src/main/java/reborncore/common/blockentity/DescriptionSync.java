@@ -0,0 +1,177 @@
+/*
+ * This file is part of RebornCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2024 TeamReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package reborncore.common.blockentity;
+
+import io.netty.buffer.Unpooled;
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.item.ItemStack;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.registry.DynamicRegistryManager;
+import reborncore.common.network.DescriptionBatcher;
+import reborncore.common.network.clientbound.DescriptionSyncPayload;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * The fields of a block entity that clients tracking it need, for example to render it.
+ * <p>
+ * Full block entity data is still sent with the chunk. After that, {@link #sendChanges()} only sends the fields
+ * whose value changed since they were last sent, encoded with their {@link PacketCodec}.
+ */
+public class DescriptionSync {
+	// Marks fields that were never sent
+	private static final Object NOT_SENT = new Object();
+
+	private final BlockEntity blockEntity;
+	private final List<Field<?>> fields = new ArrayList<>();
+	private Object[] sentValues = new Object[0];
+
+	public DescriptionSync(BlockEntity blockEntity) {
+		this.blockEntity = blockEntity;
+	}
+
+	/**
+	 * Adds a field holding an immutable value, compared with {@link Object#equals(Object)}
+	 *
+	 * @param codec  {@link PacketCodec} Codec for the value
+	 * @param getter {@link Supplier} Reads the value on the server
+	 * @param setter {@link Consumer} Applies the value on the client
+	 * @param <T>    Type of the value
+	 * @return {@link DescriptionSync} This. Useful for chaining
+	 */
+	public <T> DescriptionSync field(PacketCodec<? super RegistryByteBuf, T> codec, Supplier<T> getter, Consumer<T> setter) {
+		return field(codec, getter, setter, Objects::equals, UnaryOperator.identity());
+	}
+
+	/**
+	 * Adds a field holding a mutable value
+	 *
+	 * @param codec    {@link PacketCodec} Codec for the value
+	 * @param getter   {@link Supplier} Reads the value on the server
+	 * @param setter   {@link Consumer} Applies the value on the client
+	 * @param equality {@link BiPredicate} Whether two values are the same for the client
+	 * @param copy     {@link UnaryOperator} Copies a value, so the sent value is not changed in place
+	 * @param <T>      Type of the value
+	 * @return {@link DescriptionSync} This. Useful for chaining
+	 */
+	public <T> DescriptionSync field(PacketCodec<? super RegistryByteBuf, T> codec, Supplier<T> getter, Consumer<T> setter, BiPredicate<T, T> equality, UnaryOperator<T> copy) {
+		fields.add(new Field<>(codec, getter, setter, equality, copy));
+		sentValues = Arrays.copyOf(sentValues, fields.size());
+		sentValues[fields.size() - 1] = NOT_SENT;
+		return this;
+	}
+
+	/**
+	 * Adds an item stack field. Only the item and its components are synced, the count should be its own field.
+	 *
+	 * @param getter {@link Supplier} Reads the stack on the server
+	 * @param setter {@link Consumer} Applies the stack on the client
+	 * @return {@link DescriptionSync} This. Useful for chaining
+	 */
+	public DescriptionSync stack(Supplier<ItemStack> getter, Consumer<ItemStack> setter) {
+		return field(ItemStack.OPTIONAL_PACKET_CODEC, () -> getter.get().copyWithCount(1), setter, ItemStack::areItemsAndComponentsEqual, UnaryOperator.identity());
+	}
+
+	public boolean isEmpty() {
+		return fields.isEmpty();
+	}
+
+	/**
+	 * Sends the fields that changed since they were last sent to every player tracking the block entity.
+	 */
+	@SuppressWarnings({"rawtypes", "unchecked"})
+	public void sendChanges() {
+		if (blockEntity.getWorld() == null || blockEntity.getWorld().isClient) {
+			return;
+		}
+
+		int changed = 0;
+		Object[] values = new Object[fields.size()];
+		boolean[] changedFields = new boolean[fields.size()];
+		for (int i = 0; i < fields.size(); i++) {
+			Field field = fields.get(i);
+			values[i] = field.getter().get();
+			if (sentValues[i] == NOT_SENT || !field.equality().test(sentValues[i], values[i])) {
+				changedFields[i] = true;
+				changed++;
+			}
+		}
+
+		if (changed == 0) {
+			return;
+		}
+
+		RegistryByteBuf byteBuf = new RegistryByteBuf(PacketByteBufs.create(), blockEntity.getWorld().getRegistryManager());
+		byteBuf.writeVarInt(changed);
+		for (int i = 0; i < fields.size(); i++) {
+			if (!changedFields[i]) {
+				continue;
+			}
+			Field field = fields.get(i);
+			byteBuf.writeVarInt(i);
+			field.codec().encode(byteBuf, values[i]);
+			sentValues[i] = field.copy().apply(values[i]);
+		}
+
+		byte[] data = new byte[byteBuf.readableBytes()];
+		byteBuf.readBytes(data);
+		DescriptionBatcher.queue(new DescriptionSyncPayload(blockEntity.getPos(), data), blockEntity);
+	}
+
+	/**
+	 * Applies the fields sent by {@link #sendChanges()} on the client.
+	 *
+	 * @param data            {@code byte[]} Encoded fields
+	 * @param registryManager {@link DynamicRegistryManager} Registries to decode the fields with
+	 */
+	@SuppressWarnings({"rawtypes", "unchecked"})
+	public void apply(byte[] data, DynamicRegistryManager registryManager) {
+		RegistryByteBuf byteBuf = new RegistryByteBuf(Unpooled.wrappedBuffer(data), registryManager);
+		int count = byteBuf.readVarInt();
+		for (int i = 0; i < count; i++) {
+			Field field = fields.get(byteBuf.readVarInt());
+			field.setter().accept(field.codec().decode(byteBuf));
+		}
+	}
+
+	/**
+	 * Implemented by block entities with a {@link DescriptionSync}, so that the client can find it.
+	 */
+	public interface Provider {
+		DescriptionSync getDescriptionSync();
+	}
+
+	private record Field<T>(PacketCodec<? super RegistryByteBuf, T> codec, Supplier<T> getter, Consumer<T> setter, BiPredicate<T, T> equality, UnaryOperator<T> copy) {
+	}
+}
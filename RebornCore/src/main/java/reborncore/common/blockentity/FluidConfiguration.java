@@ -25,6 +25,7 @@
 package reborncore.common.blockentity;
 
 import io.netty.buffer.ByteBuf;
+import net.fabricmc.fabric.api.lookup.v1.block.BlockApiCache;
 import net.fabricmc.fabric.api.transfer.v1.fluid.FluidStorage;
 import net.fabricmc.fabric.api.transfer.v1.fluid.FluidVariant;
 import net.fabricmc.fabric.api.transfer.v1.storage.Storage;
@@ -32,17 +33,19 @@ import net.fabricmc.fabric.api.transfer.v1.storage.StorageUtil;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.network.codec.PacketCodec;
 import net.minecraft.network.codec.PacketCodecs;
+import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import reborncore.common.util.NBTSerializable;
+import reborncore.common.util.Tank;
 
 import java.util.*;
 
 public class FluidConfiguration implements NBTSerializable {
 	private static final PacketCodec<ByteBuf, Map<Direction, FluidConfig>> SIDE_MAP_PACKET_CODEC = PacketCodecs.map(
-		HashMap::new,
+		size -> new EnumMap<>(Direction.class),
 		Direction.PACKET_CODEC,
 		FluidConfig.PACKET_CODEC
 	);
@@ -53,16 +56,28 @@ public class FluidConfiguration implements NBTSerializable {
 		FluidConfiguration::new
 	);
 
+	private static final int MAX_BACKOFF = 4;
+
 	Map<Direction, FluidConfig> sideMap;
 	boolean input, output;
 
+	// Server side transfer state, see update
+	@SuppressWarnings("unchecked")
+	private final BlockApiCache<Storage<FluidVariant>, Direction>[] adjacentCaches = new BlockApiCache[6];
+	private final long[] nextTransferTime = new long[6];
+	// When each side would transfer again without back-off
+	private final long[] regularTransferTime = new long[6];
+	private final int[] backoff = new int[6];
+	private FluidVariant lastResource = FluidVariant.blank();
+	private long lastAmount = -1;
+
 	public FluidConfiguration() {
-		sideMap = new HashMap<>();
+		sideMap = new EnumMap<>(Direction.class);
 		Arrays.stream(Direction.values()).forEach(facing -> sideMap.put(facing, new FluidConfig(facing)));
 	}
 
 	public FluidConfiguration(NbtCompound tagCompound) {
-		sideMap = new HashMap<>();
+		sideMap = new EnumMap<>(Direction.class);
 		read(tagCompound);
 	}
 
@@ -90,36 +105,103 @@ public class FluidConfiguration implements NBTSerializable {
 	public void updateFluidConfig(FluidConfig config) {
 		FluidConfig toEdit = sideMap.get(config.side);
 		toEdit.ioConfig = config.ioConfig;
+		wakeUp();
 	}
 
+	/**
+	 * Moves fluid between the machine tank and its neighbors on the enabled sides.
+	 * <p>
+	 * Neighbor storages are looked up through a {@link BlockApiCache} per side. A side that moved nothing waits twice
+	 * as long before its next attempt, up to {@link #MAX_BACKOFF} doublings, and goes back to
+	 * {@link MachineBaseBlockEntity#slotTransferSpeed()} as soon as the tank contents, the neighbor or the
+	 * configuration change. Waking up never makes a side transfer sooner than that cadence after its last attempt.
+	 *
+	 * @param machineBase {@link MachineBaseBlockEntity} Machine owning this configuration
+	 */
 	public void update(MachineBaseBlockEntity machineBase) {
 		if (!input && !output) {
 			return;
 		}
-		if (machineBase.getTank() == null || machineBase.getWorld().getTime() % machineBase.slotTransferSpeed() != 0) {
+		Tank machineTank = machineBase.getTank();
+		if (machineTank == null || !(machineBase.getWorld() instanceof ServerWorld world)) {
 			return;
 		}
+
+		if (lastAmount != machineTank.getAmount() || !lastResource.equals(machineTank.getResource())) {
+			wakeUp();
+		}
+
+		long time = world.getTime();
 		for (Direction facing : Direction.values()) {
+			int id = facing.getId();
+			if (time < nextTransferTime[id]) {
+				continue;
+			}
 			FluidConfig fluidConfig = getSideDetail(facing);
 			if (fluidConfig == null || !fluidConfig.getIoConfig().isEnabled()) {
 				continue;
 			}
-
-			@Nullable
-			Storage<FluidVariant> tank = getTank(machineBase, facing);
-			if (autoInput() && fluidConfig.getIoConfig().isInsert()) {
-				StorageUtil.move(tank, machineBase.getTank(), fv -> true, machineBase.fluidTransferAmount().getRawValue(), null);
+			boolean insert = autoInput() && fluidConfig.getIoConfig().isInsert() && !machineTank.isFull();
+			boolean extract = autoOutput() && fluidConfig.getIoConfig().isExtract() && !machineTank.isEmpty();
+
+			boolean moved = false;
+			if (insert || extract) {
+				@Nullable
+				Storage<FluidVariant> tank = getAdjacentCache(world, machineBase.getPos(), facing).find(facing.getOpposite());
+				if (tank != null) {
+					if (insert) {
+						moved |= StorageUtil.move(tank, machineTank, fv -> true, machineBase.fluidTransferAmount().getRawValue(), null) > 0;
+					}
+					if (extract) {
+						moved |= StorageUtil.move(machineTank, tank, fv -> true, machineBase.fluidTransferAmount().getRawValue(), null) > 0;
+					}
+				}
 			}
-			if (autoOutput() && fluidConfig.getIoConfig().isExtract()) {
-				StorageUtil.move(machineBase.getTank(), tank, fv -> true, machineBase.fluidTransferAmount().getRawValue(), null);
+
+			backoff[id] = moved ? 0 : Math.min(backoff[id] + 1, MAX_BACKOFF);
+			regularTransferTime[id] = time + machineBase.slotTransferSpeed();
+			nextTransferTime[id] = time + ((long) machineBase.slotTransferSpeed() << backoff[id]);
+		}
+
+		// Our own transfers are not a reason to wake up.
+		lastAmount = machineTank.getAmount();
+		lastResource = machineTank.getResource();
+	}
+
+	/**
+	 * Ends the back-off of all sides, so they transfer again at the regular cadence.
+	 */
+	public void wakeUp() {
+		for (int i = 0; i < 6; i++) {
+			resetBackoff(i);
+		}
+	}
+
+	/**
+	 * Drops the cached lookup for the side facing the changed block and ends the back-off of that side.
+	 *
+	 * @param machinePos  {@link BlockPos} Position of the machine owning this configuration
+	 * @param neighborPos {@link BlockPos} Position of the block that changed
+	 */
+	public void onNeighborUpdate(BlockPos machinePos, BlockPos neighborPos) {
+		for (Direction side : Direction.values()) {
+			if (machinePos.offset(side).equals(neighborPos)) {
+				adjacentCaches[side.getId()] = null;
+				resetBackoff(side.getId());
 			}
 		}
 	}
 
-	@Nullable
-	private Storage<FluidVariant> getTank(MachineBaseBlockEntity machine, Direction facing) {
-		BlockPos pos = machine.getPos().offset(facing);
-		return FluidStorage.SIDED.find(machine.getWorld(), pos, facing.getOpposite());
+	private void resetBackoff(int id) {
+		backoff[id] = 0;
+		nextTransferTime[id] = Math.min(nextTransferTime[id], regularTransferTime[id]);
+	}
+
+	private BlockApiCache<Storage<FluidVariant>, Direction> getAdjacentCache(ServerWorld world, BlockPos machinePos, Direction side) {
+		if (adjacentCaches[side.getId()] == null) {
+			adjacentCaches[side.getId()] = BlockApiCache.create(FluidStorage.SIDED, world, machinePos.offset(side));
+		}
+		return adjacentCaches[side.getId()];
 	}
 
 	public boolean autoInput() {
@@ -132,10 +214,12 @@ public class FluidConfiguration implements NBTSerializable {
 
 	public void setInput(boolean input) {
 		this.input = input;
+		wakeUp();
 	}
 
 	public void setOutput(boolean output) {
 		this.output = output;
+		wakeUp();
 	}
 
 	@NotNull
@@ -158,6 +242,7 @@ public class FluidConfiguration implements NBTSerializable {
 		});
 		input = nbt.getBoolean("input");
 		output = nbt.getBoolean("output");
+		wakeUp();
 	}
 
 	public static class FluidConfig implements NBTSerializable {
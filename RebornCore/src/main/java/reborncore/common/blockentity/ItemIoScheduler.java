@@ -0,0 +1,146 @@
+/*
+ * This file is part of RebornCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2024 TeamReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package reborncore.common.blockentity;
+
+import net.fabricmc.fabric.api.lookup.v1.block.BlockApiCache;
+import net.fabricmc.fabric.api.transfer.v1.item.InventoryStorage;
+import net.fabricmc.fabric.api.transfer.v1.item.ItemStorage;
+import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
+import net.fabricmc.fabric.api.transfer.v1.storage.Storage;
+import net.fabricmc.fabric.api.transfer.v1.storage.StorageUtil;
+import net.minecraft.inventory.Inventory;
+import net.minecraft.item.ItemStack;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import reborncore.common.util.RebornInventory;
+
+/**
+ * Moves items between a machine and its neighbors for the slots configured to auto input or auto output.
+ * <p>
+ * Each side is handled in one pass over all of its slots, using a cached lookup of the neighbor's item storage.
+ * A side that moved nothing waits twice as long before its next attempt, up to {@link #MAX_BACKOFF} doublings,
+ * and goes back to {@link MachineBaseBlockEntity#slotTransferSpeed()} as soon as the machine inventory or the
+ * neighbor changes. Waking up never makes a side transfer sooner than that cadence after its last attempt.
+ */
+public class ItemIoScheduler {
+	private static final int MAX_BACKOFF = 4;
+
+	private final MachineBaseBlockEntity machine;
+	@SuppressWarnings("unchecked")
+	private final BlockApiCache<Storage<ItemVariant>, Direction>[] adjacentCaches = new BlockApiCache[6];
+	private final long[] nextTransferTime = new long[6];
+	private final long[] lastTransferTime = new long[6];
+	private final int[] backoff = new int[6];
+	private int lastChangeCount = -1;
+
+	public ItemIoScheduler(MachineBaseBlockEntity machine) {
+		this.machine = machine;
+	}
+
+	public void tick(SlotConfiguration slotConfiguration, Inventory inventory) {
+		if (!(machine.getWorld() instanceof ServerWorld world)) {
+			return;
+		}
+
+		RebornInventory<?> rebornInventory = inventory instanceof RebornInventory<?> ri ? ri : null;
+		if (rebornInventory != null && rebornInventory.getChangeCount() != lastChangeCount) {
+			wakeUp();
+		}
+
+		long time = world.getTime();
+		for (Direction side : Direction.values()) {
+			int id = side.getId();
+			if (time < nextTransferTime[id]) {
+				continue;
+			}
+			int[] inputSlots = slotConfiguration.getSideSlots(side, SlotConfiguration.SideSlots.AUTO_INPUT);
+			int[] outputSlots = slotConfiguration.getSideSlots(side, SlotConfiguration.SideSlots.AUTO_OUTPUT);
+			if (inputSlots.length == 0 && outputSlots.length == 0) {
+				continue;
+			}
+
+			boolean moved = false;
+			Storage<ItemVariant> neighbor = getAdjacentCache(world, side).find(side.getOpposite());
+			if (neighbor != null) {
+				InventoryStorage machineStorage = InventoryStorage.of(machine, null);
+				for (int slot : inputSlots) {
+					ItemStack targetStack = inventory.getStack(slot);
+					if (targetStack.getMaxCount() == targetStack.getCount()) {
+						continue;
+					}
+					// Move up to 4 per transfer.
+					moved |= StorageUtil.move(neighbor, machineStorage.getSlot(slot), iv -> true, 4, null) > 0;
+				}
+				for (int slot : outputSlots) {
+					if (inventory.getStack(slot).isEmpty()) {
+						continue;
+					}
+					moved |= StorageUtil.move(machineStorage.getSlot(slot), neighbor, iv -> true, Long.MAX_VALUE, null) > 0;
+				}
+			}
+
+			lastTransferTime[id] = time;
+			backoff[id] = moved ? 0 : Math.min(backoff[id] + 1, MAX_BACKOFF);
+			nextTransferTime[id] = time + ((long) machine.slotTransferSpeed() << backoff[id]);
+		}
+
+		// Our own transfers are not a reason to wake up.
+		if (rebornInventory != null) {
+			lastChangeCount = rebornInventory.getChangeCount();
+		}
+	}
+
+	/**
+	 * Ends the back-off of all sides, so they transfer again at the regular cadence.
+	 */
+	public void wakeUp() {
+		for (int i = 0; i < 6; i++) {
+			resetBackoff(i);
+		}
+	}
+
+	public void onNeighborUpdate(BlockPos neighborPos) {
+		for (Direction side : Direction.values()) {
+			if (machine.getPos().offset(side).equals(neighborPos)) {
+				adjacentCaches[side.getId()] = null;
+				resetBackoff(side.getId());
+			}
+		}
+	}
+
+	private void resetBackoff(int id) {
+		backoff[id] = 0;
+		nextTransferTime[id] = Math.min(nextTransferTime[id], lastTransferTime[id] + machine.slotTransferSpeed());
+	}
+
+	private BlockApiCache<Storage<ItemVariant>, Direction> getAdjacentCache(ServerWorld world, Direction side) {
+		if (adjacentCaches[side.getId()] == null) {
+			adjacentCaches[side.getId()] = BlockApiCache.create(ItemStorage.SIDED, world, machine.getPos().offset(side));
+		}
+		return adjacentCaches[side.getId()];
+	}
+}
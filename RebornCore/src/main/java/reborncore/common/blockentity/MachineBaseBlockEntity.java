@@ -54,7 +54,7 @@ import reborncore.api.blockentity.InventoryProvider;
 import reborncore.api.recipe.IRecipeCrafterProvider;
 import reborncore.common.blocks.BlockMachineBase;
 import reborncore.common.fluid.FluidValue;
-import reborncore.common.network.NetworkManager;
+import reborncore.common.network.DescriptionBatcher;
 import reborncore.common.network.clientbound.CustomDescriptionPayload;
 import reborncore.common.recipes.IUpgradeHandler;
 import reborncore.common.recipes.RecipeCrafter;
@@ -62,18 +62,28 @@ import reborncore.common.util.RebornInventory;
 import reborncore.common.util.Tank;
 
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
 
 /**
  * Created by modmuss50 on 04/11/2016.
  */
-public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTicker<MachineBaseBlockEntity>, IUpgradeable, IUpgradeHandler, IListInfoProvider, Inventory, SidedInventory, RedstoneConfigurable {
+public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTicker<MachineBaseBlockEntity>, IUpgradeable, IUpgradeHandler, IListInfoProvider, Inventory, SidedInventory, RedstoneConfigurable, DescriptionSync.Provider {
 
-	public RebornInventory<MachineBaseBlockEntity> upgradeInventory = new RebornInventory<>(getUpgradeSlotCount(), "upgrades", 1, this, (slotID, stack, face, direction, blockEntity) -> true);
+	public RebornInventory<MachineBaseBlockEntity> upgradeInventory = new RebornInventory<>(getUpgradeSlotCount(), "upgrades", 1, this, (slotID, stack, face, direction, blockEntity) -> true) {
+		@Override
+		public void markDirty() {
+			// Slots may edit upgrade stacks in place, so treat any change as an upgrade change.
+			setHashChanged(true);
+			super.markDirty();
+		}
+	};
 	private SlotConfiguration slotConfiguration;
 	public FluidConfiguration fluidConfiguration;
 	private RedstoneConfiguration redstoneConfiguration;
+	private final ItemIoScheduler itemIoScheduler = new ItemIoScheduler(this);
+	private final MultiblockCache multiblockCache = new MultiblockCache(this);
+	@Nullable
+	private DescriptionSync descriptionSync;
 	private final List<RedstoneConfiguration.Element> redstoneElements;
 
 	public boolean renderMultiblock = false;
@@ -114,6 +124,15 @@ public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTi
 	 * <p/>
 	 */
 	boolean muffled = false;
+	/**
+	 * <p>
+	 *  Incremented every time upgrades are re-applied, so that users of the upgrade values can tell
+	 *  when their own cached values are stale.
+	 * <p/>
+	 */
+	private int upgradeVersion = 0;
+	private boolean upgradesStale = true;
+	private boolean lastRecipeProcessing = true;
 
 	public MachineBaseBlockEntity(BlockEntityType<?> type, BlockPos pos, BlockState state) {
 		super(type, pos, state);
@@ -122,17 +141,45 @@ public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTi
 	}
 
 	public boolean isMultiblockValid() {
-		MultiblockWriter.MultiblockVerifier verifier = new MultiblockWriter.MultiblockVerifier(getPos(), getWorld());
-		writeMultiblock(verifier.rotate(getFacing().getOpposite()));
-		return verifier.isValid();
+		return multiblockCache.isValid();
+	}
+
+	/**
+	 * Must be called when the shape written by {@link #writeMultiblock(MultiblockWriter)} changes for a reason
+	 * other than the facing, so that the cached multiblock shape is rebuilt.
+	 */
+	public void invalidateMultiblock() {
+		multiblockCache.invalidateShape();
 	}
 
 	private void syncIfNecessary(){
 		if (this.markSync && this.tickTime % syncCoolDown == 0) {
 			this.markSync = false;
 			if (world == null || world.isClient) { return; }
-			NetworkManager.sendToTracking(new CustomDescriptionPayload(this.pos, this.createNbt(world.getRegistryManager())), this);
+			if (getDescriptionSync().isEmpty()) {
+				DescriptionBatcher.queue(new CustomDescriptionPayload(this.pos, this.createNbt(world.getRegistryManager())), this);
+			} else {
+				getDescriptionSync().sendChanges();
+			}
+		}
+	}
+
+	@Override
+	public DescriptionSync getDescriptionSync() {
+		if (descriptionSync == null) {
+			descriptionSync = new DescriptionSync(this);
+			addDescriptionFields(descriptionSync);
 		}
+		return descriptionSync;
+	}
+
+	/**
+	 * Declares the fields that clients tracking this machine need. Machines that declare none are sent all of
+	 * their data when synced.
+	 *
+	 * @param sync {@link DescriptionSync} Sync to add the fields to
+	 */
+	protected void addDescriptionFields(DescriptionSync sync) {
 	}
 
 	public void writeMultiblock(MultiblockWriter writer) {}
@@ -179,21 +226,21 @@ public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTi
 		if (getOptionalCrafter().isPresent()) {
 			crafter = getOptionalCrafter().get();
 		}
-		if (canBeUpgraded()) {
-			resetUpgrades();
-			for (int i = 0; i < getUpgradeSlotCount(); i++) {
-				ItemStack stack = getUpgradeInventory().getStack(i);
-				if (!stack.isEmpty() && stack.getItem() instanceof IUpgrade) {
-					((IUpgrade) stack.getItem()).process(this, this, stack);
-				}
-			}
-			afterUpgradesApplication();
+		if (canBeUpgraded() && areUpgradesStale()) {
+			applyUpgrades();
 		}
 		if (world == null || world.isClient) {
 			return;
 		}
-		if (crafter != null && isActive(RedstoneConfiguration.Element.RECIPE_PROCESSING)) {
-			crafter.updateEntity();
+		if (crafter != null) {
+			boolean recipeProcessing = isActive(RedstoneConfiguration.Element.RECIPE_PROCESSING);
+			if (recipeProcessing != lastRecipeProcessing) {
+				lastRecipeProcessing = recipeProcessing;
+				crafter.wakeUp();
+			}
+			if (recipeProcessing) {
+				crafter.updateEntity();
+			}
 		}
 		if (slotConfiguration != null && isActive(RedstoneConfiguration.Element.ITEM_IO)) {
 			slotConfiguration.update(this);
@@ -204,6 +251,87 @@ public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTi
 		syncIfNecessary();
 	}
 
+	/**
+	 * Called when a block next to this machine changes, so that cached neighbor lookups can be dropped.
+	 *
+	 * @param neighborPos {@link BlockPos} Position of the block that changed
+	 */
+	public void onNeighborUpdate(BlockPos neighborPos) {
+		itemIoScheduler.onNeighborUpdate(neighborPos);
+		if (fluidConfiguration != null) {
+			fluidConfiguration.onNeighborUpdate(pos, neighborPos);
+		}
+	}
+
+	@Override
+	public void markRemoved() {
+		super.markRemoved();
+		// Stop listening for block changes, the shape is compiled again if the removal is cancelled
+		invalidateMultiblock();
+	}
+
+	public ItemIoScheduler getItemIoScheduler() {
+		return itemIoScheduler;
+	}
+
+	/**
+	 * Check if the cached upgrade values need to be recomputed
+	 *
+	 * @return {@code boolean} Returns true if upgrades should be re-applied this tick
+	 */
+	protected boolean areUpgradesStale() {
+		return upgradesStale || upgradeInventory.hasChanged();
+	}
+
+	/**
+	 * Forces the upgrades to be re-applied on the next tick, for when something other than the upgrade
+	 * inventory changes the outcome of {@link IUpgrade#process}.
+	 */
+	public void invalidateUpgrades() {
+		upgradesStale = true;
+	}
+
+	/**
+	 * Returns a counter that changes every time upgrades are re-applied
+	 *
+	 * @return {@code int} Current upgrade state version
+	 */
+	public int getUpgradeVersion() {
+		return upgradeVersion;
+	}
+
+	private void applyUpgrades() {
+		resetUpgrades();
+		for (int i = 0; i < getUpgradeSlotCount(); i++) {
+			ItemStack stack = getUpgradeInventory().getStack(i);
+			if (!stack.isEmpty() && stack.getItem() instanceof IUpgrade) {
+				((IUpgrade) stack.getItem()).process(this, this, stack);
+			}
+		}
+		afterUpgradesApplication();
+		upgradeInventory.resetHasChanged();
+		upgradesStale = false;
+		upgradeVersion++;
+		wakeUp();
+	}
+
+	/**
+	 * Wakes up the recipe crafter of this machine if it is sleeping, see {@link RecipeCrafter#wakeUp()}
+	 */
+	public void wakeUp() {
+		if (this instanceof IRecipeCrafterProvider crafterProvider && crafterProvider.getRecipeCrafter() != null) {
+			crafterProvider.getRecipeCrafter().wakeUp();
+		}
+	}
+
+	/**
+	 * @return {@code boolean} Returns true if this machine has nothing to do until something changes
+	 */
+	public boolean isSleeping() {
+		return this instanceof IRecipeCrafterProvider crafterProvider && crafterProvider.getRecipeCrafter() != null
+			&& crafterProvider.getRecipeCrafter().isSleeping();
+	}
+
 	public void resetUpgrades() {
 		resetPowerMultiplier();
 		resetSpeedMultiplier();
@@ -295,6 +423,7 @@ public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTi
 			}
 		}
 		upgradeInventory.read(tagCompound, "Upgrades", registryLookup);
+		invalidateUpgrades();
 	}
 
 	@Override
@@ -487,9 +616,8 @@ public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTi
 			return false;
 		}
 		SlotConfiguration.SlotConfigHolder slotConfigHolder = slotConfiguration.getSlotDetails(slot);
-		if (slotConfigHolder.filter() && getOptionalCrafter().isPresent()) {
-			RecipeCrafter crafter = getOptionalCrafter().get();
-			if (!crafter.isStackValidInput(stack)) {
+		if (slotConfigHolder.filter() && this instanceof IRecipeCrafterProvider crafterProvider && crafterProvider.getRecipeCrafter() != null) {
+			if (!crafterProvider.getRecipeCrafter().isStackValidInput(stack)) {
 				return false;
 			}
 		}
@@ -514,10 +642,7 @@ public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTi
 		if(slotConfiguration == null){
 			return new int[]{}; // I think should be ok, if needed this can return all the slots
 		}
-		return slotConfiguration.getSlotsForSide(side).stream()
-			.filter(Objects::nonNull)
-			.filter(slotConfig -> slotConfig.getSlotIO().ioConfig != SlotConfiguration.ExtractConfig.NONE)
-			.mapToInt(SlotConfiguration.SlotConfig::getSlotID).toArray();
+		return slotConfiguration.getSideSlots(side, SlotConfiguration.SideSlots.ACCESSIBLE);
 	}
 
 	@Override
@@ -528,9 +653,8 @@ public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTi
 		SlotConfiguration.SlotConfigHolder slotConfigHolder = slotConfiguration.getSlotDetails(index);
 		SlotConfiguration.SlotConfig slotConfig = slotConfigHolder.getSideDetail(direction);
 		if (slotConfig.getSlotIO().ioConfig.isInsert()) {
-			if (slotConfigHolder.filter() && getOptionalCrafter().isPresent()) {
-				RecipeCrafter crafter = getOptionalCrafter().get();
-				return crafter.isStackValidInput(stack);
+			if (slotConfigHolder.filter() && this instanceof IRecipeCrafterProvider crafterProvider && crafterProvider.getRecipeCrafter() != null) {
+				return crafterProvider.getRecipeCrafter().isStackValidInput(stack);
 			}
 			return slotConfig.getSlotIO().getIoConfig().isInsert();
 		}
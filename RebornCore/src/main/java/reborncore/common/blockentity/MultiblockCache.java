@@ -0,0 +1,158 @@
+/*
+ * This file is part of RebornCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2024 TeamReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package reborncore.common.blockentity;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.world.BlockView;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
+import reborncore.common.util.BlockChangeTracker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiPredicate;
+
+/**
+ * Caches the result of {@link MachineBaseBlockEntity#isMultiblockValid()}.
+ * <p>
+ * The shape written by {@link MachineBaseBlockEntity#writeMultiblock(MultiblockWriter)} is compiled once per facing
+ * into flat position and predicate arrays. On the server the last result is kept until a block inside the
+ * bounding box of the shape changes, so a formed structure costs nothing to re-check.
+ */
+public class MultiblockCache implements BlockChangeTracker.Listener {
+	private static final BiPredicate<?, ?>[] EMPTY_PREDICATES = new BiPredicate<?, ?>[0];
+
+	private final MachineBaseBlockEntity machine;
+	private final BlockPos.Mutable checkPos = new BlockPos.Mutable();
+
+	@Nullable
+	private Direction facing;
+	private long[] positions;
+	private BiPredicate<BlockView, BlockPos>[] predicates;
+	@Nullable
+	private World watchedWorld;
+
+	private boolean resultKnown = false;
+	private boolean result = false;
+
+	public MultiblockCache(MachineBaseBlockEntity machine) {
+		this.machine = machine;
+	}
+
+	public boolean isValid() {
+		World world = machine.getWorld();
+		if (world == null) {
+			return false;
+		}
+		Direction currentFacing = machine.getFacing();
+		if (positions == null || currentFacing != facing) {
+			compile(world, currentFacing);
+		}
+		if (world.isClient) {
+			return evaluate(world);
+		}
+		if (!resultKnown) {
+			result = evaluate(world);
+			resultKnown = true;
+		}
+		return result;
+	}
+
+	/**
+	 * Drops the compiled shape. Must be called when something other than the facing changes what
+	 * {@link MachineBaseBlockEntity#writeMultiblock(MultiblockWriter)} writes.
+	 */
+	public void invalidateShape() {
+		if (watchedWorld != null) {
+			BlockChangeTracker.unregister(watchedWorld, this);
+			watchedWorld = null;
+		}
+		positions = null;
+		predicates = null;
+		facing = null;
+		resultKnown = false;
+	}
+
+	@Override
+	public void onBlockChanged(BlockPos pos) {
+		resultKnown = false;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void compile(World world, Direction facing) {
+		invalidateShape();
+		BlockPos origin = machine.getPos();
+		LongArrayList positionList = new LongArrayList();
+		List<BiPredicate<BlockView, BlockPos>> predicateList = new ArrayList<>();
+		MultiblockWriter recorder = new MultiblockWriter() {
+			@Override
+			public MultiblockWriter add(int x, int y, int z, BiPredicate<BlockView, BlockPos> predicate, BlockState state) {
+				positionList.add(BlockPos.asLong(origin.getX() + x, origin.getY() + y, origin.getZ() + z));
+				predicateList.add(predicate);
+				return this;
+			}
+		};
+		machine.writeMultiblock(recorder.rotate(facing.getOpposite()));
+
+		this.facing = facing;
+		this.positions = positionList.toLongArray();
+		this.predicates = predicateList.toArray((BiPredicate<BlockView, BlockPos>[]) EMPTY_PREDICATES);
+
+		if (positions.length > 0 && !world.isClient) {
+			BlockChangeTracker.register(world, getBounds(), this);
+			watchedWorld = world;
+		}
+	}
+
+	private BlockBox getBounds() {
+		int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+		int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+		for (long position : positions) {
+			int x = BlockPos.unpackLongX(position);
+			int y = BlockPos.unpackLongY(position);
+			int z = BlockPos.unpackLongZ(position);
+			minX = Math.min(minX, x);
+			minY = Math.min(minY, y);
+			minZ = Math.min(minZ, z);
+			maxX = Math.max(maxX, x);
+			maxY = Math.max(maxY, y);
+			maxZ = Math.max(maxZ, z);
+		}
+		return new BlockBox(minX, minY, minZ, maxX, maxY, maxZ);
+	}
+
+	private boolean evaluate(World world) {
+		for (int i = 0; i < positions.length; i++) {
+			if (!predicates[i].test(world, checkPos.set(positions[i]))) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -26,9 +26,6 @@ package reborncore.common.blockentity;
 
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import io.netty.buffer.ByteBuf;
-import net.fabricmc.fabric.api.transfer.v1.item.InventoryStorage;
-import net.fabricmc.fabric.api.transfer.v1.item.ItemStorage;
-import net.fabricmc.fabric.api.transfer.v1.storage.StorageUtil;
 import net.minecraft.inventory.Inventory;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NbtCompound;
@@ -51,6 +48,16 @@ public class SlotConfiguration implements NBTSerializable {
 		.xmap(SlotConfiguration::new, SlotConfiguration::getSlotDetails);
 
 	List<SlotConfigHolder> slotDetails = new ArrayList<>();
+	/**
+	 * Slot details indexed by slot id, may contain nulls for ids without details.
+	 */
+	private SlotConfigHolder[] slotsById = new SlotConfigHolder[0];
+	/**
+	 * Slot id lists per side and per {@link SideSlots} kind, indexed by side ordinal. Built lazily and thrown
+	 * away whenever a slot config is edited.
+	 */
+	@Nullable
+	private int[][][] sideSlots = null;
 
 	@Nullable
 	Inventory inventory;
@@ -64,8 +71,10 @@ public class SlotConfiguration implements NBTSerializable {
 	}
 
 	private SlotConfiguration(List<SlotConfigHolder> slotDetails) {
-		this.slotDetails = slotDetails;
 		this.inventory = null;
+		for (SlotConfigHolder slotConfigHolder : slotDetails) {
+			updateSlotDetails(slotConfigHolder);
+		}
 	}
 
 	public void update(MachineBaseBlockEntity machineBase) {
@@ -82,8 +91,8 @@ public class SlotConfiguration implements NBTSerializable {
 				}
 			}
 		}
-		if (!machineBase.getWorld().isClient && machineBase.getWorld().getTime() % machineBase.slotTransferSpeed() == 0) {
-			getSlotDetails().forEach(slotConfigHolder -> slotConfigHolder.handleItemIO(machineBase));
+		if (!machineBase.getWorld().isClient && inventory != null) {
+			machineBase.getItemIoScheduler().tick(this, inventory);
 		}
 	}
 
@@ -105,25 +114,88 @@ public class SlotConfiguration implements NBTSerializable {
 		SlotConfigHolder lookup = getSlotDetails(slotConfigHolder.slotID);
 		if (lookup != null) {
 			slotDetails.remove(lookup);
+			lookup.owner = null;
 		}
 		slotDetails.add(slotConfigHolder);
+		if (slotConfigHolder.slotID >= slotsById.length) {
+			slotsById = Arrays.copyOf(slotsById, slotConfigHolder.slotID + 1);
+		}
+		slotsById[slotConfigHolder.slotID] = slotConfigHolder;
+		slotConfigHolder.owner = this;
+		invalidateSideSlots();
 		return slotConfigHolder;
 	}
 
 	@Nullable
 	public SlotConfigHolder getSlotDetails(int id) {
-		for (SlotConfigHolder detail : slotDetails) {
-			if (detail.slotID == id) {
-				return detail;
-			}
+		if (id < 0 || id >= slotsById.length) {
+			return null;
 		}
-		return null;
+		return slotsById[id];
 	}
 
 	public List<SlotConfig> getSlotsForSide(Direction facing) {
 		return slotDetails.stream().map(slotConfigHolder -> slotConfigHolder.getSideDetail(facing)).collect(Collectors.toList());
 	}
 
+	/**
+	 * Returns the ids of the slots with the given kind of IO on a side, in slot detail order
+	 *
+	 * @param side {@link Direction} Side of the machine
+	 * @param kind {@link SideSlots} Kind of slots to return
+	 * @return {@code int[]} Slot ids, must not be modified
+	 */
+	public int[] getSideSlots(Direction side, SideSlots kind) {
+		if (sideSlots == null) {
+			sideSlots = buildSideSlots();
+		}
+		return sideSlots[side.ordinal()][kind.ordinal()];
+	}
+
+	void invalidateSideSlots() {
+		sideSlots = null;
+	}
+
+	private int[][][] buildSideSlots() {
+		int[][][] slots = new int[Direction.values().length][SideSlots.values().length][];
+		for (Direction side : Direction.values()) {
+			for (SideSlots kind : SideSlots.values()) {
+				slots[side.ordinal()][kind.ordinal()] = slotDetails.stream()
+					.filter(holder -> kind.matches(holder, holder.getSideDetail(side).getSlotIO().getIoConfig()))
+					.mapToInt(SlotConfigHolder::getSlotID)
+					.toArray();
+			}
+		}
+		return slots;
+	}
+
+	public enum SideSlots {
+		/**
+		 * Slots that can be accessed from the side, either for input or output.
+		 */
+		ACCESSIBLE,
+		INSERT,
+		EXTRACT,
+		/**
+		 * Slots that pull items from the neighbor on the side.
+		 */
+		AUTO_INPUT,
+		/**
+		 * Slots that push items to the neighbor on the side.
+		 */
+		AUTO_OUTPUT;
+
+		boolean matches(SlotConfigHolder holder, ExtractConfig config) {
+			return switch (this) {
+				case ACCESSIBLE -> config != ExtractConfig.NONE;
+				case INSERT -> config.isInsert();
+				case EXTRACT -> config.isExtract();
+				case AUTO_INPUT -> holder.input && config == ExtractConfig.INPUT;
+				case AUTO_OUTPUT -> holder.output && config == ExtractConfig.OUTPUT;
+			};
+		}
+	}
+
 	@Override
 	public NbtCompound write() {
 		NbtCompound tagCompound = new NbtCompound();
@@ -147,7 +219,7 @@ public class SlotConfiguration implements NBTSerializable {
 	public static class SlotConfigHolder implements NBTSerializable {
 		public static final PacketCodec<ByteBuf, SlotConfigHolder> PACKET_CODEC = PacketCodec.tuple(
 			PacketCodecs.INTEGER, SlotConfigHolder::getSlotID,
-			PacketCodecs.map(HashMap::new, Direction.PACKET_CODEC, SlotConfig.PACKET_CODEC), SlotConfigHolder::getSideMap,
+			PacketCodecs.map(size -> new EnumMap<>(Direction.class), Direction.PACKET_CODEC, SlotConfig.PACKET_CODEC), SlotConfigHolder::getSideMap,
 			PacketCodecs.BOOL, SlotConfigHolder::autoInput,
 			PacketCodecs.BOOL, SlotConfigHolder::autoOutput,
 			PacketCodecs.BOOL, SlotConfigHolder::filter,
@@ -155,12 +227,17 @@ public class SlotConfiguration implements NBTSerializable {
 		);
 
 		int slotID;
-		HashMap<Direction, SlotConfig> sideMap;
+		/**
+		 * Side configs indexed by side ordinal.
+		 */
+		final SlotConfig[] sides = new SlotConfig[Direction.values().length];
 		boolean input, output, filter;
+		@Nullable
+		SlotConfiguration owner;
 
-		private SlotConfigHolder(int slotID, HashMap<Direction, SlotConfig> sideMap, boolean input, boolean output, boolean filter) {
+		private SlotConfigHolder(int slotID, Map<Direction, SlotConfig> sideMap, boolean input, boolean output, boolean filter) {
 			this.slotID = slotID;
-			this.sideMap = sideMap;
+			sideMap.forEach((side, config) -> sides[side.ordinal()] = config);
 			this.input = input;
 			this.output = output;
 			this.filter = filter;
@@ -168,50 +245,37 @@ public class SlotConfiguration implements NBTSerializable {
 
 		public SlotConfigHolder(int slotID) {
 			this.slotID = slotID;
-			sideMap = new HashMap<>();
-			Arrays.stream(Direction.values()).forEach(facing -> sideMap.put(facing, new SlotConfig(facing, slotID)));
+			for (Direction facing : Direction.values()) {
+				sides[facing.ordinal()] = new SlotConfig(facing, slotID);
+			}
 		}
 
 		public SlotConfigHolder(NbtCompound tagCompound) {
-			sideMap = new HashMap<>();
 			read(tagCompound);
-			Validate.isTrue(Arrays.stream(Direction.values())
-								.map(enumFacing -> sideMap.get(enumFacing))
-								.noneMatch(Objects::isNull),
-							"sideMap failed to load from nbt"
-			);
+			Validate.isTrue(Arrays.stream(sides).noneMatch(Objects::isNull), "sideMap failed to load from nbt");
 		}
 
 		public SlotConfig getSideDetail(Direction side) {
 			Validate.notNull(side, "A none null side must be used");
-			SlotConfig slotConfig = sideMap.get(side);
+			SlotConfig slotConfig = sides[side.ordinal()];
 			Validate.notNull(slotConfig, "slotConfig was null for side " + side);
 			return slotConfig;
 		}
 
 		public List<SlotConfig> getAllSides() {
-			return new ArrayList<>(sideMap.values());
+			return Arrays.asList(sides);
 		}
 
 		public void updateSlotConfig(SlotConfig config) {
-			SlotConfig toEdit = sideMap.get(config.side);
+			SlotConfig toEdit = sides[config.side.ordinal()];
 			toEdit.slotIO = config.slotIO;
+			onEdited();
 		}
 
-		private void handleItemIO(MachineBaseBlockEntity machineBase) {
-			if (!input && !output) {
-				return;
+		private void onEdited() {
+			if (owner != null) {
+				owner.invalidateSideSlots();
 			}
-			getAllSides().stream()
-				.filter(config -> config.getSlotIO().getIoConfig() != ExtractConfig.NONE)
-				.forEach(config -> {
-					if (input && config.getSlotIO().getIoConfig() == ExtractConfig.INPUT) {
-						config.handleItemInput(machineBase);
-					}
-					if (output && config.getSlotIO().getIoConfig() == ExtractConfig.OUTPUT) {
-						config.handleItemOutput(machineBase);
-					}
-				});
 		}
 
 		public boolean autoInput() {
@@ -228,21 +292,28 @@ public class SlotConfiguration implements NBTSerializable {
 
 		public void setInput(boolean input) {
 			this.input = input;
+			onEdited();
 		}
 
 		public void setOutput(boolean output) {
 			this.output = output;
+			onEdited();
 		}
 
 		public void setFilter(boolean filter) {
 			this.filter = filter;
+			onEdited();
 		}
 
 		public int getSlotID() {
 			return slotID;
 		}
 
-		public HashMap<Direction, SlotConfig> getSideMap() {
+		public EnumMap<Direction, SlotConfig> getSideMap() {
+			EnumMap<Direction, SlotConfig> sideMap = new EnumMap<>(Direction.class);
+			for (Direction facing : Direction.values()) {
+				sideMap.put(facing, sides[facing.ordinal()]);
+			}
 			return sideMap;
 		}
 
@@ -250,7 +321,7 @@ public class SlotConfiguration implements NBTSerializable {
 		public NbtCompound write() {
 			NbtCompound compound = new NbtCompound();
 			compound.putInt("slotID", slotID);
-			Arrays.stream(Direction.values()).forEach(facing -> compound.put("side_" + facing.ordinal(), sideMap.get(facing).write()));
+			Arrays.stream(Direction.values()).forEach(facing -> compound.put("side_" + facing.ordinal(), sides[facing.ordinal()].write()));
 			compound.putBoolean("input", input);
 			compound.putBoolean("output", output);
 			compound.putBoolean("filter", filter);
@@ -259,18 +330,17 @@ public class SlotConfiguration implements NBTSerializable {
 
 		@Override
 		public void read(NbtCompound nbt) {
-			sideMap.clear();
 			slotID = nbt.getInt("slotID");
 			Arrays.stream(Direction.values()).forEach(facing -> {
 				NbtCompound compound = nbt.getCompound("side_" + facing.ordinal());
-				SlotConfig config = new SlotConfig(compound);
-				sideMap.put(facing, config);
+				sides[facing.ordinal()] = new SlotConfig(compound);
 			});
 			input = nbt.getBoolean("input");
 			output = nbt.getBoolean("output");
 			if (nbt.contains("filter")) { // Was added later, this allows old saves to be upgraded
 				filter = nbt.getBoolean("filter");
 			}
+			onEdited();
 		}
 	}
 
@@ -318,38 +388,6 @@ public class SlotConfiguration implements NBTSerializable {
 			return slotID;
 		}
 
-		private void handleItemInput(MachineBaseBlockEntity machineBase) {
-			RebornInventory<?> inventory = machineBase.getOptionalInventory().get();
-			ItemStack targetStack = inventory.getStack(slotID);
-			if (targetStack.getMaxCount() == targetStack.getCount()) {
-				return;
-			}
-
-			StorageUtil.move(
-					ItemStorage.SIDED.find(machineBase.getWorld(), machineBase.getPos().offset(side), side.getOpposite()),
-					InventoryStorage.of(machineBase, null).getSlot(slotID),
-					iv -> true,
-					4, // Move up to 4 per tick.
-					null
-			);
-		}
-
-		private void handleItemOutput(MachineBaseBlockEntity machineBase) {
-			RebornInventory<?> inventory = machineBase.getOptionalInventory().get();
-			ItemStack sourceStack = inventory.getStack(slotID);
-			if (sourceStack.isEmpty()) {
-				return;
-			}
-
-			StorageUtil.move(
-					InventoryStorage.of(machineBase, null).getSlot(slotID),
-					ItemStorage.SIDED.find(machineBase.getWorld(), machineBase.getPos().offset(side), side.getOpposite()),
-					iv -> true,
-					Long.MAX_VALUE,
-					null
-			);
-		}
-
 		@Override
 		public NbtCompound write() {
 			NbtCompound tagCompound = new NbtCompound();
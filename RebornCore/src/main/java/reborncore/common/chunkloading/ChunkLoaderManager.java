@@ -27,6 +27,12 @@ package reborncore.common.chunkloading;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 import io.netty.buffer.ByteBuf;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.objects.Object2ObjectLinkedOpenHashMap;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtElement;
 import net.minecraft.nbt.NbtOps;
@@ -49,11 +55,12 @@ import reborncore.common.network.NetworkManager;
 import reborncore.common.network.clientbound.ChunkSyncPayload;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 // This does not do the actual chunk loading, just keeps track of what chunks the chunk loader has loaded
 public class ChunkLoaderManager extends PersistentState {
@@ -73,50 +80,57 @@ public class ChunkLoaderManager extends PersistentState {
 		return serverWorld.getPersistentStateManager().getOrCreate(TYPE, KEY);
 	}
 
-	private final List<LoadedChunk> loadedChunks = new ArrayList<>();
+	private final Map<Identifier, WorldChunks> worlds = new Object2ObjectLinkedOpenHashMap<>();
 
 	public static ChunkLoaderManager fromTag(NbtCompound tag, RegistryWrapper.WrapperLookup registryLookup) {
 		ChunkLoaderManager chunkLoaderManager = new ChunkLoaderManager();
 
-		chunkLoaderManager.loadedChunks.clear();
-
 		List<LoadedChunk> chunks = CODEC.parse(NbtOps.INSTANCE, tag.getList("loadedchunks", NbtElement.COMPOUND_TYPE))
 				.result()
 				.orElse(Collections.emptyList());
 
-		chunkLoaderManager.loadedChunks.addAll(chunks);
+		chunks.forEach(loadedChunk -> chunkLoaderManager.getWorldChunks(loadedChunk.world()).add(loadedChunk));
 
 		return chunkLoaderManager;
 	}
 
 	@Override
 	public NbtCompound writeNbt(NbtCompound compoundTag, RegistryWrapper.WrapperLookup registryLookup) {
-		CODEC.encodeStart(NbtOps.INSTANCE, loadedChunks)
+		CODEC.encodeStart(NbtOps.INSTANCE, getAllLoadedChunks())
 				.result()
 				.ifPresent(tag -> compoundTag.put("loadedchunks", tag));
 		return compoundTag;
 	}
 
 	public Optional<LoadedChunk> getLoadedChunk(World world, ChunkPos chunkPos, BlockPos chunkLoader){
-		return loadedChunks.stream()
-			.filter(loadedChunk -> loadedChunk.world().equals(getWorldName(world)))
-			.filter(loadedChunk -> loadedChunk.chunk().equals(chunkPos))
-			.filter(loadedChunk -> loadedChunk.chunkLoader().equals(chunkLoader))
-			.findFirst();
+		WorldChunks worldChunks = worlds.get(getWorldName(world));
+		if (worldChunks == null) {
+			return Optional.empty();
+		}
+		return Optional.ofNullable(worldChunks.get(chunkPos.toLong(), chunkLoader.asLong()));
 	}
 
 	public Optional<LoadedChunk> getLoadedChunk(World world, ChunkPos chunkPos){
-		return loadedChunks.stream()
-			.filter(loadedChunk -> loadedChunk.world().equals(getWorldName(world)))
-			.filter(loadedChunk -> loadedChunk.chunk().equals(chunkPos))
-			.findFirst();
+		WorldChunks worldChunks = worlds.get(getWorldName(world));
+		if (worldChunks == null || !worldChunks.isLoaded(chunkPos.toLong())) {
+			return Optional.empty();
+		}
+		long chunk = chunkPos.toLong();
+		for (Long2ObjectMap<LoadedChunk> chunks : worldChunks.byLoader.values()) {
+			LoadedChunk loadedChunk = chunks.get(chunk);
+			if (loadedChunk != null) {
+				return Optional.of(loadedChunk);
+			}
+		}
+		return Optional.empty();
 	}
 
 	public List<LoadedChunk> getLoadedChunks(World world, BlockPos chunkLoader){
-		return loadedChunks.stream()
-			.filter(loadedChunk -> loadedChunk.world().equals(getWorldName(world)))
-			.filter(loadedChunk -> loadedChunk.chunkLoader().equals(chunkLoader))
-			.collect(Collectors.toList());
+		WorldChunks worldChunks = worlds.get(getWorldName(world));
+		if (worldChunks == null) {
+			return Collections.emptyList();
+		}
+		return new ArrayList<>(worldChunks.getLoaderChunks(chunkLoader.asLong()));
 	}
 
 	public boolean isChunkLoaded(World world, ChunkPos chunkPos, BlockPos chunkLoader){
@@ -124,46 +138,68 @@ public class ChunkLoaderManager extends PersistentState {
 	}
 
 	public boolean isChunkLoaded(World world, ChunkPos chunkPos){
-		return getLoadedChunk(world, chunkPos).isPresent();
+		WorldChunks worldChunks = worlds.get(getWorldName(world));
+		return worldChunks != null && worldChunks.isLoaded(chunkPos.toLong());
 	}
 
 
 	public void loadChunk(World world, ChunkPos chunkPos, BlockPos chunkLoader, String player){
 		Validate.isTrue(!isChunkLoaded(world, chunkPos, chunkLoader), "chunk is already loaded");
 		LoadedChunk loadedChunk = new LoadedChunk(chunkPos, getWorldName(world), player, chunkLoader);
-		loadedChunks.add(loadedChunk);
 
-		loadChunk((ServerWorld) world, loadedChunk);
+		if (getWorldChunks(loadedChunk.world()).add(loadedChunk)) {
+			loadChunk((ServerWorld) world, loadedChunk.chunk());
+		}
 
 		markDirty();
 	}
 
 	public void unloadChunkLoader(World world, BlockPos chunkLoader){
-		getLoadedChunks(world, chunkLoader).forEach(loadedChunk -> unloadChunk(world, loadedChunk.chunk(), chunkLoader));
+		WorldChunks worldChunks = worlds.get(getWorldName(world));
+		if (worldChunks == null) {
+			return;
+		}
+		Long2ObjectMap<LoadedChunk> chunks = worldChunks.byLoader.remove(chunkLoader.asLong());
+		if (chunks == null) {
+			return;
+		}
+
+		for (LoadedChunk loadedChunk : chunks.values()) {
+			if (worldChunks.release(loadedChunk.chunk().toLong())) {
+				unloadChunk((ServerWorld) world, loadedChunk.chunk());
+			}
+		}
+		markDirty();
 	}
 
 	public void unloadChunk(World world, ChunkPos chunkPos, BlockPos chunkLoader){
-		Optional<LoadedChunk> optionalLoadedChunk = getLoadedChunk(world, chunkPos, chunkLoader);
-		Validate.isTrue(optionalLoadedChunk.isPresent(), "chunk is not loaded");
-
-		LoadedChunk loadedChunk = optionalLoadedChunk.get();
+		WorldChunks worldChunks = worlds.get(getWorldName(world));
+		LoadedChunk loadedChunk = worldChunks == null ? null : worldChunks.remove(chunkPos.toLong(), chunkLoader.asLong());
+		Validate.isTrue(loadedChunk != null, "chunk is not loaded");
 
-		loadedChunks.remove(loadedChunk);
-
-		if(!isChunkLoaded(world, loadedChunk.chunk())){
-			final ServerChunkManager serverChunkManager = ((ServerWorld) world).getChunkManager();
-			serverChunkManager.removeTicket(ChunkLoaderManager.CHUNK_LOADER, loadedChunk.chunk(), RADIUS, loadedChunk.chunk());
+		if (worldChunks.release(chunkPos.toLong())) {
+			unloadChunk((ServerWorld) world, chunkPos);
 		}
 		markDirty();
 	}
 
 	public void onServerWorldLoad(ServerWorld world) {
-		loadedChunks.forEach(loadedChunk -> loadChunk(world, loadedChunk));
+		WorldChunks worldChunks = worlds.get(getWorldName(world));
+		if (worldChunks == null) {
+			return;
+		}
+		LongIterator iterator = worldChunks.chunkReferences.keySet().iterator();
+		while (iterator.hasNext()) {
+			loadChunk(world, new ChunkPos(iterator.nextLong()));
+		}
 	}
 
 	public void onServerWorldTick(ServerWorld world) {
-		if (!loadedChunks.isEmpty()) {
-			world.resetIdleTimeout();
+		for (WorldChunks worldChunks : worlds.values()) {
+			if (!worldChunks.chunkReferences.isEmpty()) {
+				world.resetIdleTimeout();
+				return;
+			}
 		}
 	}
 
@@ -176,11 +212,15 @@ public class ChunkLoaderManager extends PersistentState {
 	}
 
 	public void syncChunkLoaderToClient(ServerPlayerEntity serverPlayerEntity, BlockPos chunkLoader){
-		syncToClient(serverPlayerEntity, loadedChunks.stream().filter(loadedChunk -> loadedChunk.chunkLoader().equals(chunkLoader)).collect(Collectors.toList()));
+		List<LoadedChunk> chunks = new ArrayList<>();
+		for (WorldChunks worldChunks : worlds.values()) {
+			chunks.addAll(worldChunks.getLoaderChunks(chunkLoader.asLong()));
+		}
+		syncToClient(serverPlayerEntity, chunks);
 	}
 
 	public void syncAllToClient(ServerPlayerEntity serverPlayerEntity) {
-		syncToClient(serverPlayerEntity, loadedChunks);
+		syncToClient(serverPlayerEntity, getAllLoadedChunks());
 	}
 
 	public void clearClient(ServerPlayerEntity serverPlayerEntity) {
@@ -191,11 +231,89 @@ public class ChunkLoaderManager extends PersistentState {
 		NetworkManager.sendToPlayer(new ChunkSyncPayload(chunks), serverPlayerEntity);
 	}
 
-	private void loadChunk(ServerWorld world, LoadedChunk loadedChunk) {
-		ChunkPos chunkPos = loadedChunk.chunk();
+	private WorldChunks getWorldChunks(Identifier world) {
+		return worlds.computeIfAbsent(world, id -> new WorldChunks());
+	}
+
+	private List<LoadedChunk> getAllLoadedChunks() {
+		List<LoadedChunk> chunks = new ArrayList<>();
+		for (WorldChunks worldChunks : worlds.values()) {
+			for (Long2ObjectMap<LoadedChunk> loaderChunks : worldChunks.byLoader.values()) {
+				chunks.addAll(loaderChunks.values());
+			}
+		}
+		return chunks;
+	}
+
+	private void loadChunk(ServerWorld world, ChunkPos chunkPos) {
 		world.getChunkManager().addTicket(ChunkLoaderManager.CHUNK_LOADER, chunkPos, RADIUS, chunkPos);
 	}
 
+	private void unloadChunk(ServerWorld world, ChunkPos chunkPos) {
+		final ServerChunkManager serverChunkManager = world.getChunkManager();
+		serverChunkManager.removeTicket(ChunkLoaderManager.CHUNK_LOADER, chunkPos, RADIUS, chunkPos);
+	}
+
+	/**
+	 * The chunks loaded in a single world, indexed by chunk loader and with the number of chunk loaders keeping
+	 * each chunk loaded, so that tickets are only added and removed when that number goes from or to 0.
+	 */
+	private static final class WorldChunks {
+		private final Long2ObjectMap<Long2ObjectMap<LoadedChunk>> byLoader = new Long2ObjectLinkedOpenHashMap<>();
+		private final Long2IntMap chunkReferences = new Long2IntOpenHashMap();
+
+		private LoadedChunk get(long chunk, long chunkLoader) {
+			Long2ObjectMap<LoadedChunk> chunks = byLoader.get(chunkLoader);
+			return chunks == null ? null : chunks.get(chunk);
+		}
+
+		private Collection<LoadedChunk> getLoaderChunks(long chunkLoader) {
+			Long2ObjectMap<LoadedChunk> chunks = byLoader.get(chunkLoader);
+			return chunks == null ? Collections.emptyList() : chunks.values();
+		}
+
+		private boolean isLoaded(long chunk) {
+			return chunkReferences.containsKey(chunk);
+		}
+
+		/**
+		 * @return {@code boolean} {@code true} if no other chunk loader had the chunk loaded
+		 */
+		private boolean add(LoadedChunk loadedChunk) {
+			long chunk = loadedChunk.chunk().toLong();
+			LoadedChunk previous = byLoader.computeIfAbsent(loadedChunk.chunkLoader().asLong(), key -> new Long2ObjectLinkedOpenHashMap<>())
+				.put(chunk, loadedChunk);
+			return previous == null && chunkReferences.mergeInt(chunk, 1, Integer::sum) == 1;
+		}
+
+		private LoadedChunk remove(long chunk, long chunkLoader) {
+			Long2ObjectMap<LoadedChunk> chunks = byLoader.get(chunkLoader);
+			if (chunks == null) {
+				return null;
+			}
+			LoadedChunk loadedChunk = chunks.remove(chunk);
+			if (chunks.isEmpty()) {
+				byLoader.remove(chunkLoader);
+			}
+			return loadedChunk;
+		}
+
+		/**
+		 * Drops one reference to the chunk, after its entry was removed from {@link #byLoader}.
+		 *
+		 * @return {@code boolean} {@code true} if no chunk loader has the chunk loaded anymore
+		 */
+		private boolean release(long chunk) {
+			int references = chunkReferences.get(chunk) - 1;
+			if (references <= 0) {
+				chunkReferences.remove(chunk);
+				return true;
+			}
+			chunkReferences.put(chunk, references);
+			return false;
+		}
+	}
+
 	public record LoadedChunk(ChunkPos chunk, Identifier world, String player, BlockPos chunkLoader) {
 		public static Codec<ChunkPos> CHUNK_POS_CODEC = RecordCodecBuilder.create(instance ->
 			instance.group(
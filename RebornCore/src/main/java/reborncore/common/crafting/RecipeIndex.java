@@ -0,0 +1,223 @@
+/*
+ * This file is part of RebornCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2024 TeamReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package reborncore.common.crafting;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2BooleanOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.recipe.RecipeEntry;
+import net.minecraft.recipe.RecipeType;
+import net.minecraft.world.World;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Lookup of the recipes of one {@link RecipeType} by the items their ingredients accept.
+ * <p>
+ * Ingredient tags are resolved when the index is built. Each index remembers the recipe collection it was built from
+ * and is rebuilt as soon as the recipe manager hands out a different one, which happens on every datapack reload
+ * and every client recipe sync.
+ * <p>
+ * Recipes are identified by their position in {@link #getRecipes()}, so that callers can merge candidates from
+ * several items while keeping the recipe manager's order.
+ */
+public final class RecipeIndex<T extends RebornRecipe> {
+	private static final Map<net.minecraft.recipe.RecipeManager, Map<RecipeType<?>, RecipeIndex<?>>> INDEXES = new WeakHashMap<>();
+
+	private final Collection<RecipeEntry<T>> source;
+	private final List<T> recipes;
+	private final Reference2ObjectOpenHashMap<Item, int[]> recipesByItem = new Reference2ObjectOpenHashMap<>();
+	/**
+	 * Recipes that have to be tested against any item, because they have no ingredients or an ingredient that
+	 * doesn't list its matching stacks. These are also part of every array in {@link #recipesByItem}.
+	 */
+	private final int[] wildcardRecipes;
+	/**
+	 * Items for which {@link #isValidInput(ItemStack)} depends on more than the item, because one of their
+	 * candidate recipes has an ingredient that tests components.
+	 */
+	private final ReferenceOpenHashSet<Item> componentSensitiveItems = new ReferenceOpenHashSet<>();
+	private final boolean componentSensitiveWildcards;
+	private final Reference2BooleanOpenHashMap<Item> validInputs = new Reference2BooleanOpenHashMap<>();
+
+	private RecipeIndex(Collection<RecipeEntry<T>> source) {
+		this.source = source;
+		this.recipes = new ArrayList<>(source.size());
+		for (RecipeEntry<T> entry : source) {
+			recipes.add(entry.value());
+		}
+
+		Map<Item, IntArrayList> byItem = new HashMap<>();
+		IntArrayList wildcards = new IntArrayList();
+		boolean sensitiveWildcards = false;
+		for (int i = 0; i < recipes.size(); i++) {
+			List<SizedIngredient> ingredients = recipes.get(i).ingredients();
+			if (ingredients.isEmpty()) {
+				wildcards.add(i);
+				continue;
+			}
+			boolean componentSensitive = false;
+			for (SizedIngredient ingredient : ingredients) {
+				componentSensitive |= ingredient.ingredient().requiresTesting();
+			}
+			for (SizedIngredient ingredient : ingredients) {
+				ItemStack[] matchingStacks = ingredient.ingredient().getMatchingStacks();
+				if (matchingStacks.length == 0) {
+					wildcards.add(i);
+					// An empty tag matches nothing and can't make cached answers stale
+					sensitiveWildcards |= ingredient.ingredient().requiresTesting();
+				}
+				for (ItemStack stack : matchingStacks) {
+					IntArrayList list = byItem.computeIfAbsent(stack.getItem(), item -> new IntArrayList());
+					// Recipes are visited in order, so only the last element can be a duplicate.
+					if (list.isEmpty() || list.getInt(list.size() - 1) != i) {
+						list.add(i);
+					}
+					if (componentSensitive) {
+						componentSensitiveItems.add(stack.getItem());
+					}
+				}
+			}
+		}
+
+		this.wildcardRecipes = distinctSorted(wildcards);
+		this.componentSensitiveWildcards = sensitiveWildcards;
+		byItem.forEach((item, list) -> {
+			list.addAll(wildcards);
+			recipesByItem.put(item, distinctSorted(list));
+		});
+		recipesByItem.trim();
+	}
+
+	private static int[] distinctSorted(IntArrayList list) {
+		return list.intStream().sorted().distinct().toArray();
+	}
+
+	/**
+	 * Returns the index for the current recipes of the given type, building it if needed
+	 *
+	 * @param world {@link World} World whose recipe manager should be used
+	 * @param type  {@link RecipeType} Recipe type to index
+	 * @return {@link RecipeIndex} Index for the given type
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T extends RebornRecipe> RecipeIndex<T> of(World world, RecipeType<T> type) {
+		net.minecraft.recipe.RecipeManager recipeManager = world.getRecipeManager();
+		Collection<RecipeEntry<T>> source = recipeManager.getAllOfType(type);
+
+		// The client and an integrated server may look up indexes at the same time.
+		synchronized (INDEXES) {
+			Map<RecipeType<?>, RecipeIndex<?>> indexes = INDEXES.computeIfAbsent(recipeManager, manager -> new HashMap<>());
+			RecipeIndex<T> index = (RecipeIndex<T>) indexes.get(type);
+			if (index == null || index.source != source) {
+				index = new RecipeIndex<>(source);
+				indexes.put(type, index);
+			}
+			return index;
+		}
+	}
+
+	/**
+	 * @return {@link List} All recipes of this type, in recipe manager order
+	 */
+	public List<T> getRecipes() {
+		return Collections.unmodifiableList(recipes);
+	}
+
+	public T get(int recipe) {
+		return recipes.get(recipe);
+	}
+
+	public int size() {
+		return recipes.size();
+	}
+
+	/**
+	 * Returns the recipes that may accept the given item in one of their ingredients
+	 *
+	 * @param item {@link Item} Item to look up
+	 * @return {@code int[]} Sorted positions of the candidate recipes, must not be modified
+	 */
+	public int[] getCandidates(Item item) {
+		return recipesByItem.getOrDefault(item, wildcardRecipes);
+	}
+
+	/**
+	 * @return {@code int[]} Sorted positions of the recipes that are candidates for any item, must not be modified
+	 */
+	public int[] getWildcards() {
+		return wildcardRecipes;
+	}
+
+	/**
+	 * Checks if the given stack can be used by an ingredient of any recipe of this type.
+	 * <p>
+	 * The answer is cached per item, except for items used by ingredients that also test components.
+	 *
+	 * @param stack {@link ItemStack} Stack to check
+	 * @return {@code boolean} Returns true if some recipe accepts the stack
+	 */
+	public boolean isValidInput(ItemStack stack) {
+		if (stack.isEmpty()) {
+			return false;
+		}
+
+		Item item = stack.getItem();
+		if (componentSensitiveWildcards || componentSensitiveItems.contains(item)) {
+			return testValidInput(stack);
+		}
+
+		if (validInputs.containsKey(item)) {
+			return validInputs.getBoolean(item);
+		}
+		boolean valid = testValidInput(stack);
+		validInputs.put(item, valid);
+		return valid;
+	}
+
+	private boolean testValidInput(ItemStack stack) {
+		// Test with a stack with the max stack size as some independents will check the stack size.
+		// A bit of a hack but should work.
+		ItemStack largeStack = stack.copy();
+		largeStack.setCount(largeStack.getMaxCount());
+		for (int recipe : getCandidates(stack.getItem())) {
+			for (SizedIngredient ingredient : recipes.get(recipe).ingredients()) {
+				if (ingredient.test(largeStack)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+}
@@ -40,7 +40,7 @@ import java.util.stream.Stream;
 
 public class RecipeUtils {
 	public static <T extends RebornRecipe> List<T> getRecipes(World world, RecipeType<T> type) {
-		return streamRecipeEntries(world, type).map(RecipeEntry::value).toList();
+		return RecipeIndex.of(world, type).getRecipes();
 	}
 
 	public static <T extends RebornRecipe> List<RecipeEntry<T>> getRecipeEntries(World world, RecipeType<T> type) {
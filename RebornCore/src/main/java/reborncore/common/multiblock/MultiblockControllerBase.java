@@ -24,16 +24,22 @@
 
 package reborncore.common.multiblock;
 
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongLinkedOpenHashSet;
 import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
 import net.minecraft.world.World;
 import net.minecraft.world.chunk.WorldChunk;
 import reborncore.RebornCore;
 import reborncore.common.util.WorldUtils;
 
+import java.util.Arrays;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.Set;
 
 /**
@@ -60,6 +66,10 @@ public abstract class MultiblockControllerBase {
 	protected AssemblyState assemblyState;
 
 	public HashSet<IMultiblockPart> connectedParts;
+	// Mirrors connectedParts by position, for connectivity checks and bounds
+	private final MultiblockPartIndex partIndex = new MultiblockPartIndex();
+	// Positions of parts detached since the last connectivity check
+	private final LongArrayList detachedPositions = new LongArrayList();
 
 	/**
 	 * This is a deterministically-picked coordinate that identifies this
@@ -155,6 +165,7 @@ public abstract class MultiblockControllerBase {
 				String.format("[%s] Controller %s is double-adding part %d @ %s. This is unusual. If you encounter odd behavior, please tear down the machine and rebuild it.",
 					(worldObj.isClient ? "CLIENT" : "SERVER"), hashCode(), part.hashCode(), coord));
 		}
+		partIndex.add(part);
 
 		part.onAttached(this);
 		this.onBlockAdded(part);
@@ -178,38 +189,12 @@ public abstract class MultiblockControllerBase {
 			part.forfeitMultiblockSaveDelegate();
 		}
 
-		boolean updateRequired = false;
-		BlockPos partPos = part.getPos();
-
 		if (minimumCoord != null) {
-
-			if (partPos.getX() < minimumCoord.getX()) {
-				updateRequired = true;
-			}
-			if (partPos.getY() < minimumCoord.getY()) {
-				updateRequired = true;
-			}
-			if (partPos.getZ() < minimumCoord.getZ()) {
-				updateRequired = true;
-			}
-			if (updateRequired) {
-				this.minimumCoord = new BlockPos(partPos.getX(), partPos.getY(), partPos.getZ());
-			}
+			this.minimumCoord = partIndex.getMinimum();
 		}
 
 		if (maximumCoord != null) {
-			if (partPos.getX() > maximumCoord.getX()) {
-				updateRequired = true;
-			}
-			if (partPos.getY() > maximumCoord.getY()) {
-				updateRequired = true;
-			}
-			if (partPos.getZ() > maximumCoord.getZ()) {
-				updateRequired = true;
-			}
-			if (updateRequired) {
-				this.maximumCoord = new BlockPos(partPos.getX(), partPos.getY(), partPos.getZ());
-			}
+			this.maximumCoord = partIndex.getMaximum();
 		}
 
 		MultiblockRegistry.addDirtyController(worldObj, this);
@@ -272,6 +257,7 @@ public abstract class MultiblockControllerBase {
 			referenceCoord = null;
 		}
 
+		detachedPositions.add(part.getPos().asLong());
 		shouldCheckForDisconnections = true;
 	}
 
@@ -291,6 +277,7 @@ public abstract class MultiblockControllerBase {
 
 		// Strip out this part
 		onDetachBlock(part);
+		partIndex.remove(part);
 		if (!connectedParts.remove(part)) {
 			RebornCore.LOGGER.warn(
 				String.format("[%s] Double-removing part (%d) @ %d, %d, %d, this is unexpected and may cause problems. If you encounter anomalies, please tear down the reactor and rebuild it.",
@@ -483,6 +470,7 @@ public abstract class MultiblockControllerBase {
 			}
 
 			connectedParts.add(acquiredPart);
+			partIndex.add(acquiredPart);
 			acquiredPart.onAssimilated(this);
 			this.onBlockAdded(acquiredPart);
 		}
@@ -509,6 +497,8 @@ public abstract class MultiblockControllerBase {
 		this.referenceCoord = null;
 
 		connectedParts.clear();
+		partIndex.clear();
+		detachedPositions.clear();
 	}
 
 	/**
@@ -693,34 +683,9 @@ public abstract class MultiblockControllerBase {
 	 * from the list of connected parts.
 	 */
 	public void recalculateMinMaxCoords() {
-		int minX, minY, minZ;
-		int maxX, maxY, maxZ;
-		minX = minY = minZ = Integer.MAX_VALUE;
-		maxX = maxY = maxZ = Integer.MIN_VALUE;
-
-		for (IMultiblockPart part : connectedParts) {
-			BlockPos pos = part.getPos();
-			if (pos.getX() < minX) {
-				minX = pos.getX();
-			}
-			if (pos.getX() > maxX) {
-				maxX = pos.getX();
-			}
-			if (pos.getY() < minY) {
-				minY = pos.getY();
-			}
-			if (pos.getY() > maxY) {
-				maxY = pos.getY();
-			}
-			if (pos.getZ() < minZ) {
-				minZ = pos.getZ();
-			}
-			if (pos.getZ() > maxZ) {
-				maxZ = pos.getZ();
-			}
-		}
-		this.minimumCoord = new BlockPos(minX, minY, minZ);
-		this.maximumCoord = new BlockPos(maxX, maxY, maxZ);
+		// The index keeps the bounds up to date as parts come and go
+		this.minimumCoord = partIndex.getMinimum();
+		this.maximumCoord = partIndex.getMaximum();
 	}
 
 	/**
@@ -862,6 +827,9 @@ public abstract class MultiblockControllerBase {
 		}
 
 		connectedParts.removeAll(deadParts);
+		for (IMultiblockPart part : deadParts) {
+			partIndex.remove(part);
+		}
 		RebornCore.LOGGER.warn(String.format("[%s] Controller found %d dead parts during an audit, %d parts remain attached",
 			worldObj.isClient ? "CLIENT" : "SERVER", deadParts.size(), connectedParts.size()));
 	}
@@ -869,6 +837,14 @@ public abstract class MultiblockControllerBase {
 	/**
 	 * Called when this machine may need to check for blocks that are no longer
 	 * physically connected to the reference coordinate.
+	 * <p>
+	 *  Only the neighborhood of the parts detached since the last check is
+	 *  searched. The search starts from every remaining neighbor of those parts
+	 *  and stops as soon as the searches have met up, or all but one of them
+	 *  have run out of parts to visit. Parts that were unloaded or replaced
+	 *  without being detached are swept out first, and searched around like
+	 *  any other detached part.
+	 * </p>
 	 *
 	 * @return {@link Set} Set with removed {@link IMultiblockPart}s.
 	 */
@@ -882,112 +858,173 @@ public abstract class MultiblockControllerBase {
 			return null;
 		}
 
-		// Invalidate our reference coord, we'll recalculate it shortly
-		referenceCoord = null;
-
-		// Reset visitations and find the minimum coordinate
+		// Drop parts in unloaded chunks, and parts no longer in the world
 		Set<IMultiblockPart> deadParts = new HashSet<>();
-		BlockPos pos;
-		IMultiblockPart referencePart = null;
-
-		int originalSize = connectedParts.size();
-
 		for (IMultiblockPart part : connectedParts) {
-			pos = part.getWorldLocation();
-			if (!WorldUtils.isChunkLoaded(worldObj, pos) || part.isInvalid()) {
-				deadParts.add(part);
-				onDetachBlock(part);
-				continue;
-			}
-
-			if (worldObj.getBlockEntity(pos) != part) {
+			BlockPos pos = part.getWorldLocation();
+			if (!WorldUtils.isChunkLoaded(worldObj, pos) || part.isInvalid() || worldObj.getBlockEntity(pos) != part) {
 				deadParts.add(part);
-				onDetachBlock(part);
-				continue;
-			}
-
-			part.setUnvisited();
-			part.forfeitMultiblockSaveDelegate();
-
-			if (referenceCoord == null) {
-				referenceCoord = pos;
-				referencePart = part;
-			} else if (pos.compareTo(referenceCoord) < 0) {
-				referenceCoord = pos;
-				referencePart = part;
 			}
 		}
-
+		for (IMultiblockPart part : deadParts) {
+			onDetachBlock(part);
+			partIndex.remove(part);
+		}
 		connectedParts.removeAll(deadParts);
-		deadParts.clear();
 
-		if (referencePart == null || isEmpty()) {
+		if (isEmpty()) {
 			// There are no valid parts remaining. The entire multiblock was
 			// unloaded during a chunk unload. Halt.
+			detachedPositions.clear();
 			shouldCheckForDisconnections = false;
 			MultiblockRegistry.addDeadController(worldObj, this);
 			return null;
-		} else {
-			referencePart.becomeMultiblockSaveDelegate();
 		}
 
-		// Now visit all connected parts, breadth-first, starting from reference
-		// coord's part
-		IMultiblockPart part;
-		LinkedList<IMultiblockPart> partsToCheck = new LinkedList<>();
-		IMultiblockPart[] nearbyParts;
-		int visitedParts = 0;
-
-		partsToCheck.add(referencePart);
-
-		while (!partsToCheck.isEmpty()) {
-			part = partsToCheck.removeFirst();
-			part.setVisited();
-			visitedParts++;
-
-			// Chunk-safe on server, but not on client
-			nearbyParts = part.getNeighboringParts();
-			for (IMultiblockPart nearbyPart : nearbyParts) {
-				// Ignore different machines
-				if (nearbyPart.getMultiblockController() != this) {
-					continue;
-				}
-
-				if (!nearbyPart.isVisited()) {
-					nearbyPart.setVisited();
-					partsToCheck.add(nearbyPart);
+		// Every remaining part next to a detached one is a seed. The machine
+		// was connected before, so every remaining part is reachable from one.
+		LongLinkedOpenHashSet seeds = new LongLinkedOpenHashSet();
+		for (int i = 0; i < detachedPositions.size(); i++) {
+			long detached = detachedPositions.getLong(i);
+			for (Direction direction : Direction.values()) {
+				long neighbor = BlockPos.offset(detached, direction);
+				if (partIndex.contains(neighbor)) {
+					seeds.add(neighbor);
 				}
 			}
 		}
 
-		// Finally, remove all parts that remain disconnected.
-		Set<IMultiblockPart> removedParts = new HashSet<>();
-		for (IMultiblockPart orphanCandidate : connectedParts) {
-			if (!orphanCandidate.isVisited()) {
-				deadParts.add(orphanCandidate);
-				orphanCandidate.onOrphaned(this, originalSize, visitedParts);
-				onDetachBlock(orphanCandidate);
-				removedParts.add(orphanCandidate);
-			}
-		}
+		int originalSize = connectedParts.size();
+		Set<IMultiblockPart> removedParts = seeds.size() > 1 ? findDisconnectedParts(seeds.toLongArray()) : new HashSet<>();
 
-		// Trim any blocks that were invalid, or were removed.
-		connectedParts.removeAll(deadParts);
+		for (IMultiblockPart orphanCandidate : removedParts) {
+			orphanCandidate.onOrphaned(this, originalSize, originalSize - removedParts.size());
+			onDetachBlock(orphanCandidate);
+			partIndex.remove(orphanCandidate);
+		}
+		connectedParts.removeAll(removedParts);
 
-		// Cleanup. Not necessary, really.
-		deadParts.clear();
+		if (partIndex.isEmpty()) {
+			shouldCheckForDisconnections = false;
+			MultiblockRegistry.addDeadController(worldObj, this);
+			return removedParts;
+		}
 
-		// Juuuust in case.
-		if (referenceCoord == null) {
-			selectNewReferenceCoord();
+		// The lowest part is always the save delegate
+		BlockPos newReferenceCoord = BlockPos.fromLong(partIndex.first());
+		if (!newReferenceCoord.equals(referenceCoord)) {
+			if (referenceCoord != null && partIndex.get(referenceCoord.asLong()) != null) {
+				partIndex.get(referenceCoord.asLong()).forfeitMultiblockSaveDelegate();
+			}
+			referenceCoord = newReferenceCoord;
+			partIndex.get(referenceCoord.asLong()).becomeMultiblockSaveDelegate();
 		}
 
 		// We've run the checks from here on out.
+		detachedPositions.clear();
 		shouldCheckForDisconnections = false;
 
 		return removedParts;
 	}
 
+	/**
+	 * Searches outwards from each seed in turn, joining seeds whose searches meet.
+	 *
+	 * @param seeds {@code long[]} Packed positions of the parts to search from
+	 * @return {@link Set} The parts which are no longer connected to the lowest part of this machine
+	 */
+	private Set<IMultiblockPart> findDisconnectedParts(long[] seeds) {
+		int seedCount = seeds.length;
+		UnionFind groups = new UnionFind(seedCount);
+		LongArrayFIFOQueue[] queues = new LongArrayFIFOQueue[seedCount];
+		Long2IntOpenHashMap owners = new Long2IntOpenHashMap();
+		owners.defaultReturnValue(-1);
+		for (int i = 0; i < seedCount; i++) {
+			groups.add();
+			queues[i] = new LongArrayFIFOQueue();
+			queues[i].enqueue(seeds[i]);
+			owners.put(seeds[i], i);
+		}
+
+		int groupCount = seedCount;
+		int[] activeRound = new int[seedCount];
+		int round = 0;
+		while (groupCount > 1) {
+			// Stop once at most one group still has parts left to visit
+			round++;
+			int activeCount = 0;
+			for (int i = 0; i < seedCount; i++) {
+				if (!queues[i].isEmpty()) {
+					int root = groups.find(i);
+					if (activeRound[root] != round) {
+						activeRound[root] = round;
+						activeCount++;
+					}
+				}
+			}
+			if (activeCount <= 1) {
+				break;
+			}
+
+			for (int i = 0; i < seedCount; i++) {
+				if (queues[i].isEmpty()) {
+					continue;
+				}
+				long pos = queues[i].dequeueLong();
+				for (Direction direction : Direction.values()) {
+					long neighbor = BlockPos.offset(pos, direction);
+					if (!partIndex.contains(neighbor)) {
+						continue;
+					}
+					int owner = owners.get(neighbor);
+					if (owner < 0) {
+						owners.put(neighbor, i);
+						queues[i].enqueue(neighbor);
+					} else if (groups.find(owner) != groups.find(i)) {
+						groups.union(owner, i);
+						groupCount--;
+					}
+				}
+			}
+		}
+
+		Set<IMultiblockPart> disconnectedParts = new HashSet<>();
+		if (groupCount <= 1) {
+			// Everything met up, nothing was disconnected
+			return disconnectedParts;
+		}
+
+		// Groups with nothing left to visit are complete components
+		boolean[] completeRoots = new boolean[seedCount];
+		Arrays.fill(completeRoots, true);
+		for (int i = 0; i < seedCount; i++) {
+			if (!queues[i].isEmpty()) {
+				completeRoots[groups.find(i)] = false;
+			}
+		}
+
+		// The machine keeps whichever component holds its lowest part
+		int lowestOwner = owners.get(partIndex.first());
+		int keptRoot = lowestOwner >= 0 && completeRoots[groups.find(lowestOwner)] ? groups.find(lowestOwner) : -1;
+		if (keptRoot < 0) {
+			// Usually the case: the big component is still being explored, and
+			// only the small complete components are cut off
+			for (Long2IntMap.Entry entry : owners.long2IntEntrySet()) {
+				if (completeRoots[groups.find(entry.getIntValue())]) {
+					disconnectedParts.add(partIndex.get(entry.getLongKey()));
+				}
+			}
+		} else {
+			for (IMultiblockPart part : connectedParts) {
+				int owner = owners.get(part.getPos().asLong());
+				if (owner < 0 || groups.find(owner) != keptRoot) {
+					disconnectedParts.add(part);
+				}
+			}
+		}
+		return disconnectedParts;
+	}
+
 	/**
 	 * Detach all parts. Return a set of all parts which still have a valid {@link BlockEntity}
 	 * entity. Chunk-safe.
@@ -1007,6 +1044,8 @@ public abstract class MultiblockControllerBase {
 
 		Set<IMultiblockPart> detachedParts = connectedParts;
 		connectedParts = new HashSet<>();
+		partIndex.clear();
+		detachedPositions.clear();
 		return detachedParts;
 	}
 
@@ -0,0 +1,157 @@
+/*
+ * This file is part of RebornCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2024 TeamReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package reborncore.common.multiblock;
+
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongRBTreeSet;
+import net.minecraft.util.math.BlockPos;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Index of a controller's parts by packed position.
+ * <p>
+ * Keeps the parts sorted in {@link BlockPos#compareTo} order, so the reference coordinate is always the first entry,
+ * and counts parts per coordinate on each axis, so the bounding box can shrink without rescanning every part.
+ */
+class MultiblockPartIndex {
+	private final Long2ObjectOpenHashMap<IMultiblockPart> parts = new Long2ObjectOpenHashMap<>();
+	private final LongRBTreeSet order = new LongRBTreeSet(MultiblockPartIndex::compare);
+	private final Axis x = new Axis();
+	private final Axis y = new Axis();
+	private final Axis z = new Axis();
+
+	void add(IMultiblockPart part) {
+		BlockPos pos = part.getPos();
+		if (parts.put(pos.asLong(), part) == null) {
+			order.add(pos.asLong());
+			x.add(pos.getX());
+			y.add(pos.getY());
+			z.add(pos.getZ());
+		}
+	}
+
+	void remove(IMultiblockPart part) {
+		BlockPos pos = part.getPos();
+		// Only remove the entry if it still belongs to this part
+		if (parts.get(pos.asLong()) == part) {
+			parts.remove(pos.asLong());
+			order.remove(pos.asLong());
+			x.remove(pos.getX());
+			y.remove(pos.getY());
+			z.remove(pos.getZ());
+		}
+	}
+
+	void clear() {
+		parts.clear();
+		order.clear();
+		x.clear();
+		y.clear();
+		z.clear();
+	}
+
+	@Nullable
+	IMultiblockPart get(long pos) {
+		return parts.get(pos);
+	}
+
+	boolean contains(long pos) {
+		return parts.containsKey(pos);
+	}
+
+	boolean isEmpty() {
+		return parts.isEmpty();
+	}
+
+	/**
+	 * @return {@code long} Packed position of the lowest part, as ordered by {@link BlockPos#compareTo}
+	 */
+	long first() {
+		return order.firstLong();
+	}
+
+	BlockPos getMinimum() {
+		return new BlockPos(x.min, y.min, z.min);
+	}
+
+	BlockPos getMaximum() {
+		return new BlockPos(x.max, y.max, z.max);
+	}
+
+	private static int compare(long a, long b) {
+		int result = Integer.compare(BlockPos.unpackLongY(a), BlockPos.unpackLongY(b));
+		if (result == 0) {
+			result = Integer.compare(BlockPos.unpackLongZ(a), BlockPos.unpackLongZ(b));
+		}
+		if (result == 0) {
+			result = Integer.compare(BlockPos.unpackLongX(a), BlockPos.unpackLongX(b));
+		}
+		return result;
+	}
+
+	/**
+	 * Number of parts at each coordinate of one axis, with the current extent.
+	 */
+	private static class Axis {
+		private final Int2IntOpenHashMap counts = new Int2IntOpenHashMap();
+		private int min = Integer.MAX_VALUE;
+		private int max = Integer.MIN_VALUE;
+
+		void add(int value) {
+			counts.addTo(value, 1);
+			min = Math.min(min, value);
+			max = Math.max(max, value);
+		}
+
+		void remove(int value) {
+			if (counts.addTo(value, -1) > 1) {
+				return;
+			}
+			counts.remove(value);
+			if (counts.isEmpty()) {
+				clear();
+				return;
+			}
+			// Walk inwards to the next occupied coordinate, bounded by the size of the structure
+			if (value == min) {
+				while (!counts.containsKey(min)) {
+					min++;
+				}
+			}
+			if (value == max) {
+				while (!counts.containsKey(max)) {
+					max--;
+				}
+			}
+		}
+
+		void clear() {
+			counts.clear();
+			min = Integer.MAX_VALUE;
+			max = Integer.MIN_VALUE;
+		}
+	}
+}
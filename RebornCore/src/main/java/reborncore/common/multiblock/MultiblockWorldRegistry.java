@@ -24,6 +24,9 @@
 
 package reborncore.common.multiblock;
 
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.World;
@@ -32,6 +35,7 @@ import reborncore.RebornCore;
 import reborncore.common.util.WorldUtils;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * This class manages all the multiblock controllers that exist in a given
@@ -51,10 +55,13 @@ public class MultiblockWorldRegistry {
 	// Controllers which are empty
 	private Set<MultiblockControllerBase> deadControllers;
 
+	// Part additions, removals and chunk loads, in the order they happened.
+	// This can be added-to asynchronously via chunk loads, so it is only
+	// drained on the thread processing multiblock changes.
+	private final Queue<PartEvent> partEvents;
+
 	// A list of orphan parts - parts which currently have no master, but should
 	// seek one this tick
-	// Indexed by the hashed chunk coordinate
-	// This can be added-to asynchronously via chunk loads!
 	private Set<IMultiblockPart> orphanedParts;
 
 	// A list of parts which have been detached during internal operations
@@ -62,14 +69,8 @@ public class MultiblockWorldRegistry {
 
 	// A list of parts whose chunks have not yet finished loading
 	// They will be added to the orphan list when they are finished loading.
-	// Indexed by the hashed chunk coordinate
-	// This can be added-to asynchronously via chunk loads!
-	private HashMap<Integer, Set<IMultiblockPart>> partsAwaitingChunkLoad;
-
-	// Mutexes to protect lists which may be changed due to asynchronous events,
-	// such as chunk loads
-	private Object partsAwaitingChunkLoadMutex;
-	private Object orphanedPartsMutex;
+	// Indexed by ChunkPos.toLong()
+	private final Long2ObjectOpenHashMap<Set<IMultiblockPart>> partsAwaitingChunkLoad;
 
 	public MultiblockWorldRegistry(final World world) {
 		worldObj = world;
@@ -79,11 +80,10 @@ public class MultiblockWorldRegistry {
 		dirtyControllers = new HashSet<>();
 
 		detachedParts = new HashSet<>();
-		orphanedParts = new HashSet<>();
+		orphanedParts = new ReferenceLinkedOpenHashSet<>();
 
-		partsAwaitingChunkLoad = new HashMap<>();
-		partsAwaitingChunkLoadMutex = new Object();
-		orphanedPartsMutex = new Object();
+		partEvents = new ConcurrentLinkedQueue<>();
+		partsAwaitingChunkLoad = new Long2ObjectOpenHashMap<>();
 	}
 
 	/**
@@ -113,27 +113,26 @@ public class MultiblockWorldRegistry {
 	public void processMultiblockChanges() {
 		BlockPos coord;
 
+		processPartEvents();
+
 		// Merge pools - sets of adjacent machines which should be merged later
-		// on in processing
-		List<Set<MultiblockControllerBase>> mergePools = null;
+		// on in processing. Controllers that touch the same orphan are joined
+		// in a union-find, so pools never have to be compared with each other.
+		UnionFind mergeSets = null;
+		Reference2IntOpenHashMap<MultiblockControllerBase> mergeIndices = null;
+		List<MultiblockControllerBase> mergeControllers = null;
 		if (orphanedParts.size() > 0) {
-			Set<IMultiblockPart> orphansToProcess = null;
-
-			// Keep the synchronized block small. We can't iterate over
-			// orphanedParts directly
-			// because the client does not know which chunks are actually
+			// We can't iterate over orphanedParts directly, as attaching parts
+			// can detach others.
+			// The client does not know which chunks are actually
 			// loaded, so attachToNeighbors()
 			// is not chunk-safe on the client, because Minecraft is stupid.
 			// It's possible to polyfill this, but the polyfill is too slow for
 			// comfort.
-			synchronized (orphanedPartsMutex) {
-				if (orphanedParts.size() > 0) {
-					orphansToProcess = orphanedParts;
-					orphanedParts = new HashSet<>();
-				}
-			}
+			Set<IMultiblockPart> orphansToProcess = orphanedParts;
+			orphanedParts = new ReferenceLinkedOpenHashSet<>();
 
-			if (orphansToProcess != null && orphansToProcess.size() > 0) {
+			if (orphansToProcess.size() > 0) {
 				Set<MultiblockControllerBase> compatibleControllers;
 
 				// Process orphaned blocks
@@ -166,47 +165,51 @@ public class MultiblockWorldRegistry {
 						newController.attachBlock(orphan);
 						this.controllers.add(newController);
 					} else if (compatibleControllers.size() > 1) {
-						if (mergePools == null) {
-							mergePools = new ArrayList<>();
+						if (mergeSets == null) {
+							mergeSets = new UnionFind(compatibleControllers.size());
+							mergeIndices = new Reference2IntOpenHashMap<>();
+							mergeIndices.defaultReturnValue(-1);
+							mergeControllers = new ArrayList<>();
 						}
 
 						// THIS IS THE ONLY PLACE WHERE MERGES ARE DETECTED
 						// Multiple compatible controllers indicates an
-						// impending merge.
-						// Locate the appropriate merge pool(s)
-						//boolean hasAddedToPool = false;
-						List<Set<MultiblockControllerBase>> candidatePools = new ArrayList<>();
-						for (Set<MultiblockControllerBase> candidatePool : mergePools) {
-							if (!Collections.disjoint(candidatePool, compatibleControllers)) {
-								// They share at least one element, so that
-								// means they will all touch after the merge
-								candidatePools.add(candidatePool);
+						// impending merge. They will all touch after the
+						// merge, so join them into one set.
+						int first = -1;
+						for (MultiblockControllerBase controller : compatibleControllers) {
+							int index = mergeIndices.getInt(controller);
+							if (index < 0) {
+								index = mergeSets.add();
+								mergeIndices.put(controller, index);
+								mergeControllers.add(controller);
 							}
-						}
-
-						if (candidatePools.size() <= 0) {
-							// No pools nearby, create a new merge pool
-							mergePools.add(compatibleControllers);
-						} else if (candidatePools.size() == 1) {
-							// Only one pool nearby, simply add to that one
-							candidatePools.get(0).addAll(compatibleControllers);
-						} else {
-							// Multiple pools- merge into one, then add the
-							// compatible controllers
-							Set<MultiblockControllerBase> masterPool = candidatePools.get(0);
-							Set<MultiblockControllerBase> consumedPool;
-							for (int i = 1; i < candidatePools.size(); i++) {
-								consumedPool = candidatePools.get(i);
-								masterPool.addAll(consumedPool);
-								mergePools.remove(consumedPool);
+							if (first < 0) {
+								first = index;
+							} else {
+								mergeSets.union(first, index);
 							}
-							masterPool.addAll(compatibleControllers);
 						}
 					}
 				}
 			}
 		}
 
+		List<Set<MultiblockControllerBase>> mergePools = null;
+		if (mergeSets != null) {
+			mergePools = new ArrayList<>();
+			int[] poolIndices = new int[mergeSets.size()];
+			Arrays.fill(poolIndices, -1);
+			for (int i = 0; i < mergeSets.size(); i++) {
+				int root = mergeSets.find(i);
+				if (poolIndices[root] < 0) {
+					poolIndices[root] = mergePools.size();
+					mergePools.add(new HashSet<>());
+				}
+				mergePools.get(poolIndices[root]).add(mergeControllers.get(i));
+			}
+		}
+
 		if (mergePools != null && mergePools.size() > 0) {
 			// Process merges - any machines that have been marked for merge
 			// should be merged
@@ -301,7 +304,7 @@ public class MultiblockWorldRegistry {
 			part.assertDetached();
 		}
 
-		addAllOrphanedPartsThreadsafe(detachedParts);
+		orphanedParts.addAll(detachedParts);
 		detachedParts.clear();
 	}
 
@@ -314,27 +317,7 @@ public class MultiblockWorldRegistry {
 	 * @param part {@link IMultiblockPart} The part which is being added to this world.
 	 */
 	public void onPartAdded(IMultiblockPart part) {
-		BlockPos pos = part.getWorldLocation();
-
-		if (!WorldUtils.isChunkLoaded(worldObj, pos)) {
-			// Part goes into the waiting-for-chunk-load list
-			Set<IMultiblockPart> partSet;
-			int chunkHash = new ChunkPos(pos).hashCode();
-
-			synchronized (partsAwaitingChunkLoadMutex) {
-				if (!partsAwaitingChunkLoad.containsKey(chunkHash)) {
-					partSet = new HashSet<>();
-					partsAwaitingChunkLoad.put(chunkHash, partSet);
-				} else {
-					partSet = partsAwaitingChunkLoad.get(chunkHash);
-				}
-
-				partSet.add(part);
-			}
-		} else {
-			// Part goes into the orphan queue, to be checked this tick
-			addOrphanedPartThreadsafe(part);
-		}
+		partEvents.add(new PartEvent(PartEvent.Type.ADDED, part, 0L));
 	}
 
 	/**
@@ -345,29 +328,9 @@ public class MultiblockWorldRegistry {
 	 * @param part {@link IMultiblockPart} The part which is being removed.
 	 */
 	public void onPartRemovedFromWorld(IMultiblockPart part) {
-		BlockPos pos = part.getWorldLocation();
-		if (pos != null) {
-			int chunkHash = new ChunkPos(pos).hashCode();
-
-			if (partsAwaitingChunkLoad.containsKey(chunkHash)) {
-				synchronized (partsAwaitingChunkLoadMutex) {
-					if (partsAwaitingChunkLoad.containsKey(chunkHash)) {
-						partsAwaitingChunkLoad.get(chunkHash).remove(part);
-						if (partsAwaitingChunkLoad.get(chunkHash).size() <= 0) {
-							partsAwaitingChunkLoad.remove(chunkHash);
-						}
-					}
-				}
-			}
-		}
+		partEvents.add(new PartEvent(PartEvent.Type.REMOVED, part, 0L));
 
 		detachedParts.remove(part);
-		if (orphanedParts.contains(part)) {
-			synchronized (orphanedPartsMutex) {
-				orphanedParts.remove(part);
-			}
-		}
-
 		part.assertDetached();
 	}
 
@@ -382,13 +345,9 @@ public class MultiblockWorldRegistry {
 
 		detachedParts.clear();
 
-		synchronized (partsAwaitingChunkLoadMutex) {
-			partsAwaitingChunkLoad.clear();
-		}
-
-		synchronized (orphanedPartsMutex) {
-			orphanedParts.clear();
-		}
+		partEvents.clear();
+		partsAwaitingChunkLoad.clear();
+		orphanedParts.clear();
 
 		worldObj = null;
 	}
@@ -401,15 +360,7 @@ public class MultiblockWorldRegistry {
 	 * @param chunk {@link Chunk} Chunk that was loaded
 	 */
 	public void onChunkLoaded(Chunk chunk) {
-		int chunkHash = chunk.getPos().hashCode();
-		if (partsAwaitingChunkLoad.containsKey(chunkHash)) {
-			synchronized (partsAwaitingChunkLoadMutex) {
-				if (partsAwaitingChunkLoad.containsKey(chunkHash)) {
-					addAllOrphanedPartsThreadsafe(partsAwaitingChunkLoad.get(chunkHash));
-					partsAwaitingChunkLoad.remove(chunkHash);
-				}
-			}
-		}
+		partEvents.add(new PartEvent(PartEvent.Type.CHUNK_LOADED, null, chunk.getPos().toLong()));
 	}
 
 	/**
@@ -447,15 +398,51 @@ public class MultiblockWorldRegistry {
 
 	/* *** PRIVATE HELPERS *** */
 
-	private void addOrphanedPartThreadsafe(IMultiblockPart part) {
-		synchronized (orphanedPartsMutex) {
-			orphanedParts.add(part);
+	/**
+	 * Applies the queued part events in order. Parts in loaded chunks become
+	 * orphans to be checked this tick, the others wait for their chunk.
+	 */
+	private void processPartEvents() {
+		PartEvent event;
+		while ((event = partEvents.poll()) != null) {
+			switch (event.type()) {
+				case ADDED -> {
+					BlockPos pos = event.part().getWorldLocation();
+					if (WorldUtils.isChunkLoaded(worldObj, pos)) {
+						orphanedParts.add(event.part());
+					} else {
+						partsAwaitingChunkLoad.computeIfAbsent(ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4), chunk -> new HashSet<>()).add(event.part());
+					}
+				}
+				case REMOVED -> {
+					BlockPos pos = event.part().getWorldLocation();
+					if (pos != null) {
+						long chunkPos = ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4);
+						Set<IMultiblockPart> partSet = partsAwaitingChunkLoad.get(chunkPos);
+						if (partSet != null) {
+							partSet.remove(event.part());
+							if (partSet.isEmpty()) {
+								partsAwaitingChunkLoad.remove(chunkPos);
+							}
+						}
+					}
+					orphanedParts.remove(event.part());
+				}
+				case CHUNK_LOADED -> {
+					Set<IMultiblockPart> partSet = partsAwaitingChunkLoad.remove(event.chunkPos());
+					if (partSet != null) {
+						orphanedParts.addAll(partSet);
+					}
+				}
+			}
 		}
 	}
 
-	private void addAllOrphanedPartsThreadsafe(Collection<? extends IMultiblockPart> parts) {
-		synchronized (orphanedPartsMutex) {
-			orphanedParts.addAll(parts);
+	private record PartEvent(Type type, IMultiblockPart part, long chunkPos) {
+		enum Type {
+			ADDED,
+			REMOVED,
+			CHUNK_LOADED
 		}
 	}
 }
@@ -0,0 +1,84 @@
+/*
+ * This file is part of RebornCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2024 TeamReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package reborncore.common.multiblock;
+
+import java.util.Arrays;
+
+/**
+ * Disjoint set over the integers {@code 0..size-1}, with path halving and union by size.
+ * Used to group connected parts and touching controllers without comparing sets against each other.
+ */
+class UnionFind {
+	private int[] parent;
+	private int[] size;
+	private int count;
+
+	UnionFind(int capacity) {
+		parent = new int[Math.max(capacity, 4)];
+		size = new int[parent.length];
+	}
+
+	/**
+	 * Adds a new element in a set of its own
+	 *
+	 * @return {@code int} Index of the new element
+	 */
+	int add() {
+		if (count == parent.length) {
+			parent = Arrays.copyOf(parent, count * 2);
+			size = Arrays.copyOf(size, count * 2);
+		}
+		parent[count] = count;
+		size[count] = 1;
+		return count++;
+	}
+
+	int find(int element) {
+		while (parent[element] != element) {
+			parent[element] = parent[parent[element]];
+			element = parent[element];
+		}
+		return element;
+	}
+
+	void union(int a, int b) {
+		int rootA = find(a);
+		int rootB = find(b);
+		if (rootA == rootB) {
+			return;
+		}
+		if (size[rootA] < size[rootB]) {
+			int swap = rootA;
+			rootA = rootB;
+			rootB = swap;
+		}
+		parent[rootB] = rootA;
+		size[rootA] += size[rootB];
+	}
+
+	int size() {
+		return count;
+	}
+}
@@ -0,0 +1,151 @@
+/*
+ * This file is part of RebornCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2024 TeamReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package reborncore.common.network;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.fabricmc.fabric.api.networking.v1.PlayerLookup;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import reborncore.common.network.clientbound.CustomDescriptionPayload;
+import reborncore.common.network.clientbound.DescriptionBatchPayload;
+import reborncore.common.network.clientbound.DescriptionSyncPayload;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects block entity description updates per player during a server tick and sends them at the end of the tick,
+ * with the field updates bundled into {@link DescriptionBatchPayload}s.
+ *
+ * <p>Only the latest full description for a position is kept, and field updates queued after it are merged into
+ * one {@link DescriptionSyncPayload}. Full descriptions carry a machine's whole NBT and can be large, so they are
+ * sent on their own rather than bundled.
+ */
+public final class DescriptionBatcher {
+	/**
+	 * Caps the field updates in a single {@link DescriptionBatchPayload} to keep it well below the payload size limit.
+	 */
+	private static final int MAX_BATCH_SIZE = 128;
+
+	private static final Map<ServerPlayerEntity, Long2ObjectLinkedOpenHashMap<PendingUpdate>> PENDING = new Reference2ObjectOpenHashMap<>();
+
+	private DescriptionBatcher() {
+	}
+
+	/**
+	 * Queues a full description for every player tracking the block entity, replacing anything queued for it.
+	 *
+	 * @param payload     {@link CustomDescriptionPayload} Description to send
+	 * @param blockEntity {@link BlockEntity} Block entity the description belongs to
+	 */
+	public static void queue(CustomDescriptionPayload payload, BlockEntity blockEntity) {
+		long pos = payload.pos().asLong();
+		for (ServerPlayerEntity player : PlayerLookup.tracking(blockEntity)) {
+			PendingUpdate update = getPending(player, pos);
+			update.description = payload;
+			update.sync = null;
+		}
+	}
+
+	/**
+	 * Queues a field update for every player tracking the block entity, merging it with any update queued earlier.
+	 *
+	 * @param payload     {@link DescriptionSyncPayload} Field update to send
+	 * @param blockEntity {@link BlockEntity} Block entity the update belongs to
+	 */
+	public static void queue(DescriptionSyncPayload payload, BlockEntity blockEntity) {
+		long pos = payload.pos().asLong();
+		for (ServerPlayerEntity player : PlayerLookup.tracking(blockEntity)) {
+			PendingUpdate update = getPending(player, pos);
+			update.sync = update.sync == null ? payload : update.sync.merge(payload);
+		}
+	}
+
+	private static PendingUpdate getPending(ServerPlayerEntity player, long pos) {
+		return PENDING.computeIfAbsent(player, p -> new Long2ObjectLinkedOpenHashMap<>())
+			.computeIfAbsent(pos, p -> new PendingUpdate());
+	}
+
+	/**
+	 * Sends everything queued during this tick. Called at the end of every server tick.
+	 *
+	 * @param server {@link MinecraftServer} Server that finished ticking
+	 */
+	public static void flush(MinecraftServer server) {
+		if (PENDING.isEmpty()) {
+			return;
+		}
+
+		for (Map.Entry<ServerPlayerEntity, Long2ObjectLinkedOpenHashMap<PendingUpdate>> entry : PENDING.entrySet()) {
+			ServerPlayerEntity player = entry.getKey();
+			if (player.isDisconnected()) {
+				continue;
+			}
+
+			List<CustomPayload> payloads = new ArrayList<>();
+			for (PendingUpdate update : entry.getValue().values()) {
+				if (update.description != null) {
+					// Sent ahead of the batches, so it still arrives before the field updates queued after it
+					ServerPlayNetworking.send(player, update.description);
+				}
+				if (update.sync != null) {
+					payloads.add(update.sync);
+				}
+			}
+
+			if (payloads.isEmpty()) {
+				continue;
+			}
+			if (payloads.size() == 1) {
+				ServerPlayNetworking.send(player, payloads.getFirst());
+				continue;
+			}
+			for (int start = 0; start < payloads.size(); start += MAX_BATCH_SIZE) {
+				List<CustomPayload> batch = payloads.subList(start, Math.min(payloads.size(), start + MAX_BATCH_SIZE));
+				ServerPlayNetworking.send(player, new DescriptionBatchPayload(List.copyOf(batch)));
+			}
+		}
+
+		PENDING.clear();
+	}
+
+	/**
+	 * Drops everything queued, used when the server stops.
+	 */
+	public static void clear() {
+		PENDING.clear();
+	}
+
+	private static final class PendingUpdate {
+		private CustomDescriptionPayload description;
+		private DescriptionSyncPayload sync;
+	}
+}
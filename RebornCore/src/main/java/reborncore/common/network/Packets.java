@@ -28,6 +28,8 @@ import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
 import net.minecraft.network.RegistryByteBuf;
 import reborncore.common.network.clientbound.ChunkSyncPayload;
 import reborncore.common.network.clientbound.CustomDescriptionPayload;
+import reborncore.common.network.clientbound.DescriptionBatchPayload;
+import reborncore.common.network.clientbound.DescriptionSyncPayload;
 import reborncore.common.network.clientbound.FluidConfigSyncPayload;
 import reborncore.common.network.clientbound.QueueItemStacksPayload;
 import reborncore.common.network.clientbound.ScreenHandlerUpdatePayload;
@@ -49,6 +51,8 @@ public class Packets {
 	private static void clientbound(PayloadTypeRegistry<RegistryByteBuf> registry) {
 		registry.register(ChunkSyncPayload.ID, ChunkSyncPayload.PACKET_CODEC);
 		registry.register(CustomDescriptionPayload.ID, CustomDescriptionPayload.PACKET_CODEC);
+		registry.register(DescriptionBatchPayload.ID, DescriptionBatchPayload.PACKET_CODEC);
+		registry.register(DescriptionSyncPayload.ID, DescriptionSyncPayload.PACKET_CODEC);
 		registry.register(FluidConfigSyncPayload.ID, FluidConfigSyncPayload.PACKET_CODEC);
 		registry.register(QueueItemStacksPayload.ID, QueueItemStacksPayload.PACKET_CODEC);
 		registry.register(ScreenHandlerUpdatePayload.ID, ScreenHandlerUpdatePayload.PACKET_CODEC);
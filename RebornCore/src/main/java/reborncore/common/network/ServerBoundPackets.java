@@ -59,6 +59,7 @@ public class ServerBoundPackets {
 			for (SlotConfiguration.SlotConfigHolder slotDetail : payload.slotConfig().getSlotDetails()) {
 				machine.getSlotConfiguration().updateSlotDetails(slotDetail);
 			}
+			machine.getItemIoScheduler().wakeUp();
 			machine.markDirty();
 
 			NetworkManager.sendToWorld(new SlotSyncPayload(payload.pos(), machine.getSlotConfiguration()), (ServerWorld) machine.getWorld());
@@ -88,6 +89,7 @@ public class ServerBoundPackets {
 			holder.setInput(payload.input());
 			holder.setOutput(payload.output());
 			holder.setFilter(payload.filter());
+			machine.getItemIoScheduler().wakeUp();
 
 			//Syncs back to the client
 			NetworkManager.sendToAll(new SlotSyncPayload(payload.pos(), machine.getSlotConfiguration()), context.player().getServer());
@@ -96,6 +98,7 @@ public class ServerBoundPackets {
 		ServerPlayNetworking.registerGlobalReceiver(SlotSavePayload.ID, (payload, context) -> {
 			var machine = payload.getBlockEntity(MachineBaseBlockEntity.class, context.player());
 			machine.getSlotConfiguration().getSlotDetails(payload.slotConfig().getSlotID()).updateSlotConfig(payload.slotConfig());
+			machine.getItemIoScheduler().wakeUp();
 			machine.markDirty();
 
 			NetworkManager.sendToWorld(new SlotSyncPayload(payload.pos(), machine.getSlotConfiguration()), (ServerWorld) machine.getWorld());
@@ -0,0 +1,74 @@
+/*
+ * This file is part of RebornCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2024 TeamReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package reborncore.common.network.clientbound;
+
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.codec.PacketCodecs;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.util.Identifier;
+
+import java.util.List;
+
+/**
+ * Bundles the {@link CustomDescriptionPayload}s and {@link DescriptionSyncPayload}s queued for a player during a
+ * tick, see {@link reborncore.common.network.DescriptionBatcher}. Entries are applied in order.
+ */
+public record DescriptionBatchPayload(List<CustomPayload> payloads) implements CustomPayload {
+	public static final Id<DescriptionBatchPayload> ID = new Id<>(Identifier.of("reborncore:description_batch"));
+
+	private static final byte CUSTOM_DESCRIPTION = 0;
+	private static final byte DESCRIPTION_SYNC = 1;
+
+	private static final PacketCodec<RegistryByteBuf, CustomPayload> ENTRY_CODEC = PacketCodec.of(
+		(payload, buf) -> {
+			if (payload instanceof CustomDescriptionPayload description) {
+				buf.writeByte(CUSTOM_DESCRIPTION);
+				CustomDescriptionPayload.PACKET_CODEC.encode(buf, description);
+			} else if (payload instanceof DescriptionSyncPayload sync) {
+				buf.writeByte(DESCRIPTION_SYNC);
+				DescriptionSyncPayload.PACKET_CODEC.encode(buf, sync);
+			} else {
+				throw new IllegalArgumentException("Cannot batch payload " + payload.getId().id());
+			}
+		},
+		buf -> switch (buf.readByte()) {
+			case CUSTOM_DESCRIPTION -> CustomDescriptionPayload.PACKET_CODEC.decode(buf);
+			case DESCRIPTION_SYNC -> DescriptionSyncPayload.PACKET_CODEC.decode(buf);
+			default -> throw new IllegalStateException("Unknown batched payload type");
+		}
+	);
+
+	public static final PacketCodec<RegistryByteBuf, DescriptionBatchPayload> PACKET_CODEC = PacketCodec.tuple(
+		ENTRY_CODEC.collect(PacketCodecs.toList()), DescriptionBatchPayload::payloads,
+		DescriptionBatchPayload::new
+	);
+
+	@Override
+	public Id<? extends CustomPayload> getId() {
+		return ID;
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ * This file is part of RebornCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2024 TeamReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package reborncore.common.network.clientbound;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.codec.PacketCodecs;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import reborncore.common.network.BlockPosPayload;
+
+public record DescriptionSyncPayload(BlockPos pos, byte[] data) implements CustomPayload, BlockPosPayload {
+	public static final Id<DescriptionSyncPayload> ID = new Id<>(Identifier.of("reborncore:description_sync"));
+	public static final PacketCodec<RegistryByteBuf, DescriptionSyncPayload> PACKET_CODEC = PacketCodec.tuple(
+		BlockPos.PACKET_CODEC, DescriptionSyncPayload::pos,
+		PacketCodecs.BYTE_ARRAY, DescriptionSyncPayload::data,
+		DescriptionSyncPayload::new
+	);
+
+	/**
+	 * Combines this update with a later one for the same position. Fields are applied in order, so the later
+	 * update wins for fields present in both.
+	 *
+	 * @param later {@link DescriptionSyncPayload} Update queued after this one
+	 * @return {@link DescriptionSyncPayload} Update containing the fields of both
+	 */
+	public DescriptionSyncPayload merge(DescriptionSyncPayload later) {
+		PacketByteBuf first = new PacketByteBuf(Unpooled.wrappedBuffer(data));
+		PacketByteBuf second = new PacketByteBuf(Unpooled.wrappedBuffer(later.data));
+		int count = first.readVarInt() + second.readVarInt();
+
+		PacketByteBuf merged = new PacketByteBuf(Unpooled.buffer(data.length + later.data.length));
+		merged.writeVarInt(count);
+		merged.writeBytes(first);
+		merged.writeBytes(second);
+
+		byte[] mergedData = new byte[merged.readableBytes()];
+		merged.readBytes(mergedData);
+		return new DescriptionSyncPayload(pos, mergedData);
+	}
+
+	@Override
+	public Id<? extends CustomPayload> getId() {
+		return ID;
+	}
+}
@@ -24,6 +24,7 @@
 
 package reborncore.common.powerSystem;
 
+import net.fabricmc.fabric.api.lookup.v1.block.BlockApiCache;
 import net.fabricmc.fabric.api.transfer.v1.context.ContainerItemContext;
 import net.fabricmc.fabric.api.transfer.v1.item.InventoryStorage;
 import net.minecraft.block.BlockState;
@@ -32,6 +33,7 @@ import net.minecraft.block.entity.BlockEntityType;
 import net.minecraft.inventory.Inventory;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.registry.RegistryWrapper;
+import net.minecraft.server.world.ServerWorld;
 import net.minecraft.text.Text;
 import net.minecraft.util.Formatting;
 import net.minecraft.util.math.BlockPos;
@@ -40,6 +42,7 @@ import net.minecraft.util.math.MathHelper;
 import net.minecraft.world.World;
 import org.jetbrains.annotations.Nullable;
 import reborncore.api.IListInfoProvider;
+import reborncore.api.recipe.IRecipeCrafterProvider;
 import reborncore.common.blockentity.MachineBaseBlockEntity;
 import reborncore.common.blockentity.RedstoneConfiguration;
 import reborncore.common.util.StringUtils;
@@ -69,8 +72,26 @@ public abstract class PowerAcceptorBlockEntity extends MachineBaseBlockEntity im
 			}
 			return 0;
 		}
+
+		@Override
+		protected void onFinalCommit() {
+			PowerAcceptorBlockEntity.this.onEnergyCommitted();
+		}
 	};
+	/**
+	 * Adjacent energy storage caches, lazily created for the sides we output energy to.
+	 */
+	@SuppressWarnings("unchecked")
+	private final BlockApiCache<EnergyStorage, Direction>[] adjacentCaches = new BlockApiCache[6];
 	private RcEnergyTier blockEntityPowerTier;
+	// Tier with transformer upgrades applied, cached together with the base tier and extra tier it was computed from.
+	@Nullable
+	private RcEnergyTier upgradedPowerTier;
+	@Nullable
+	private RcEnergyTier upgradedPowerTierBase;
+	private int upgradedPowerTierExtra = 0;
+	// Overclockers scale with the current max input, which depends on the redstone state.
+	private boolean upgradesAppliedWithPowerIo = true;
 
 	public long extraPowerStorage;
 	public long extraPowerInput;
@@ -338,9 +359,12 @@ public abstract class PowerAcceptorBlockEntity extends MachineBaseBlockEntity im
 		}
 
 		for (Direction side : Direction.values()) {
+			if (!canProvideEnergy(side)) {
+				continue;
+			}
 			EnergyStorageUtil.move(
 					getSideEnergyStorage(side),
-					EnergyStorage.SIDED.find(world, pos.offset(side), side.getOpposite()),
+					getAdjacentCache(side).find(side.getOpposite()),
 					Long.MAX_VALUE,
 					null
 			);
@@ -350,6 +374,23 @@ public abstract class PowerAcceptorBlockEntity extends MachineBaseBlockEntity im
 		powerLastTick = getStored();
 	}
 
+	private BlockApiCache<EnergyStorage, Direction> getAdjacentCache(Direction side) {
+		if (adjacentCaches[side.getId()] == null) {
+			adjacentCaches[side.getId()] = BlockApiCache.create(EnergyStorage.SIDED, (ServerWorld) world, pos.offset(side));
+		}
+		return adjacentCaches[side.getId()];
+	}
+
+	@Override
+	public void onNeighborUpdate(BlockPos neighborPos) {
+		super.onNeighborUpdate(neighborPos);
+		for (Direction side : Direction.values()) {
+			if (pos.offset(side).equals(neighborPos)) {
+				adjacentCaches[side.getId()] = null;
+			}
+		}
+	}
+
 	@Override
 	public void readNbt(NbtCompound tag, RegistryWrapper.WrapperLookup registryLookup) {
 		super.readNbt(tag, registryLookup);
@@ -376,8 +417,20 @@ public abstract class PowerAcceptorBlockEntity extends MachineBaseBlockEntity im
 		extraPowerInput = 0;
 	}
 
+	private void onEnergyCommitted() {
+		if (this instanceof IRecipeCrafterProvider crafterProvider && crafterProvider.getRecipeCrafter() != null) {
+			crafterProvider.getRecipeCrafter().onEnergyInserted();
+		}
+	}
+
+	@Override
+	protected boolean areUpgradesStale() {
+		return super.areUpgradesStale() || upgradesAppliedWithPowerIo != isActive(RedstoneConfiguration.Element.POWER_IO);
+	}
+
 	@Override
 	protected void afterUpgradesApplication() {
+		upgradesAppliedWithPowerIo = isActive(RedstoneConfiguration.Element.POWER_IO);
 		if (checkOverfill && getStored() > getMaxStoredPower()) {
 			setStored(getStored());
 		}
@@ -431,12 +484,18 @@ public abstract class PowerAcceptorBlockEntity extends MachineBaseBlockEntity im
 		}
 
 		if (extraTier > 0) {
-			for (RcEnergyTier enumTier : RcEnergyTier.values()) {
-				if (enumTier.ordinal() == blockEntityPowerTier.ordinal() + extraTier) {
-					return enumTier;
+			if (upgradedPowerTierBase != blockEntityPowerTier || upgradedPowerTierExtra != extraTier) {
+				upgradedPowerTier = RcEnergyTier.INFINITE;
+				for (RcEnergyTier enumTier : RcEnergyTier.values()) {
+					if (enumTier.ordinal() == blockEntityPowerTier.ordinal() + extraTier) {
+						upgradedPowerTier = enumTier;
+						break;
+					}
 				}
+				upgradedPowerTierBase = blockEntityPowerTier;
+				upgradedPowerTierExtra = extraTier;
 			}
-			return RcEnergyTier.INFINITE;
+			return upgradedPowerTier;
 		}
 		return blockEntityPowerTier;
 	}
@@ -34,15 +34,17 @@ import net.minecraft.util.math.BlockPos;
 import org.jetbrains.annotations.Nullable;
 import reborncore.RebornCore;
 import reborncore.api.recipe.IRecipeCrafterProvider;
+import reborncore.common.blockentity.MachineBaseBlockEntity;
 import reborncore.common.blocks.BlockMachineBase;
 import reborncore.common.crafting.RebornRecipe;
+import reborncore.common.crafting.RecipeIndex;
 import reborncore.common.crafting.SizedIngredient;
-import reborncore.common.crafting.RecipeUtils;
 import reborncore.common.powerSystem.PowerAcceptorBlockEntity;
 import reborncore.common.util.ItemUtils;
 import reborncore.common.util.RebornInventory;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -101,6 +103,18 @@ public class RecipeCrafter implements IUpgradeHandler {
 	public int currentNeededTicks = 1;// Set to 1 to stop rare crashes
 
 	int ticksSinceLastChange;
+	private int upgradeVersion = -1;
+	private final BitSet candidateRecipes = new BitSet();
+	/**
+	 * A sleeping crafter skips its tick until its inventory changes or {@link #wakeUp()} is called.
+	 */
+	private boolean sleeping = false;
+	private boolean waitingForEnergy = false;
+	/**
+	 * Set by {@link #updateCurrentRecipe()} when no recipe was found and only an inventory change can make one
+	 * craftable. Overrides that don't set it keep polling every second.
+	 */
+	protected boolean idleUntilInventoryChange = false;
 
 	@Nullable
 	public static ICrafterSoundHandler soundHandler = (firstRun, blockEntity) -> {
@@ -133,20 +147,34 @@ public class RecipeCrafter implements IUpgradeHandler {
 		if (blockEntity.getWorld() == null || blockEntity.getWorld().isClient) {
 			return;
 		}
-		ticksSinceLastChange++;
 		if (cachedWorldTime == 0){
 			cachedWorldTime = blockEntity.getWorld().getTime();
 		}
 		cachedWorldTime++;
+		if (sleeping) {
+			if (!isInvDirty()) {
+				return;
+			}
+			sleeping = false;
+			waitingForEnergy = false;
+		}
+		ticksSinceLastChange++;
 		// Force a has chanced every second
 		if (ticksSinceLastChange == 20) {
 			setInvDirty(true);
 			ticksSinceLastChange = 0;
 			setIsActive();
 		}
+		// Pick up speed upgrade changes on the recipe in progress.
+		if (blockEntity instanceof MachineBaseBlockEntity machine && machine.getUpgradeVersion() != upgradeVersion) {
+			upgradeVersion = machine.getUpgradeVersion();
+			if (currentRecipe != null) {
+				currentNeededTicks = Math.max((int) (currentRecipe.time() * (1.0 - getSpeedMultiplier())), 1);
+			}
+		}
 		// It will now look for new recipes.
 		if (currentRecipe == null && isInvDirty()) {
-			updateCurrentRecipe();
+			findNextRecipe();
 		}
 		if (currentRecipe != null) {
 			// If it doesn't have all the inputs reset
@@ -169,24 +197,44 @@ public class RecipeCrafter implements IUpgradeHandler {
 				// The slots that have been filled
 				ArrayList<Integer> filledSlots = new ArrayList<>();
 				if (canGiveInvAll && currentRecipe.onCraft(blockEntity)) {
+					int crafts = getBatchSize(outputs);
+					// The first craft has been paid for tick by tick, the others are paid here at once.
+					for (int craft = 1; craft < crafts; craft++) {
+						if (!currentRecipe.onCraft(blockEntity)) {
+							crafts = craft;
+							break;
+						}
+					}
+					if (crafts > 1) {
+						energy.tryUseExact(getEuPerTick(currentRecipe.power()) * (crafts - 1));
+					}
 					for (int i = 0; i < outputs.size(); i++) {
 						// Checks it has not been filled
 						if (!filledSlots.contains(outputSlots[i])) {
 							// Fills the slot with the output stack
-							fitStack(outputs.get(i).copy(), outputSlots[i]);
+							ItemStack output = outputs.get(i).copy();
+							output.setCount(output.getCount() * crafts);
+							fitStack(output, outputSlots[i]);
 							filledSlots.add(outputSlots[i]);
 						}
 					}
 					// This uses all the inputs
-					useAllInputs();
+					if (crafts > 1) {
+						useAllInputs(crafts);
+					} else {
+						useAllInputs();
+					}
 					// Reset
 					currentRecipe = null;
 					currentTickTime = 0;
-					updateCurrentRecipe();
+					findNextRecipe();
 					// Update active state if the blockEntity isn't going to start crafting again
 					if (currentRecipe == null) {
 						setIsActive();
 					}
+				} else if (!canGiveInvAll) {
+					// Wait for the outputs to be emptied.
+					sleep(false);
 				}
 			} else if (currentRecipe != null && currentTickTime < currentNeededTicks) {
 				long useRequirement = getEuPerTick(currentRecipe.power());
@@ -196,21 +244,74 @@ public class RecipeCrafter implements IUpgradeHandler {
 						lastSoundTime = cachedWorldTime;
 						soundHandler.playSound(false, blockEntity);
 					}
+				} else {
+					sleep(true);
+					setIsActive();
 				}
 			}
 		}
 		setInvDirty(false);
 	}
 
+	private void findNextRecipe() {
+		idleUntilInventoryChange = false;
+		updateCurrentRecipe();
+		if (currentRecipe == null && idleUntilInventoryChange) {
+			sleep(false);
+		}
+	}
+
+	private void sleep(boolean forEnergy) {
+		sleeping = true;
+		waitingForEnergy = forEnergy;
+	}
+
+	/**
+	 * @return {@code boolean} Returns true if the crafter is skipping its ticks until something changes
+	 */
+	public boolean isSleeping() {
+		return sleeping;
+	}
+
+	/**
+	 * Resumes a sleeping crafter and makes it look for recipes again on its next tick.
+	 * Call this when something other than the inventory may have made a recipe craftable.
+	 */
+	public void wakeUp() {
+		if (sleeping) {
+			sleeping = false;
+			waitingForEnergy = false;
+			setInvDirty(true);
+		}
+	}
+
+	/**
+	 * Resumes a crafter that went to sleep waiting for energy, once it can afford another tick of its recipe.
+	 */
+	public void onEnergyInserted() {
+		if (waitingForEnergy && currentRecipe != null && energy.getStored() >= getEuPerTick(currentRecipe.power())) {
+			sleeping = false;
+			waitingForEnergy = false;
+		}
+	}
+
 	/**
 	 * Checks that we have all inputs, can fit output and update max tick time and current tick time
 	 */
 	public void updateCurrentRecipe() {
 		currentTickTime = 0;
-		for (RebornRecipe recipe : RecipeUtils.getRecipes(blockEntity.getWorld(), recipeType)) {
+		boolean blockedExternally = false;
+		RecipeIndex<?> index = RecipeIndex.of(blockEntity.getWorld(), recipeType);
+		BitSet candidates = collectCandidateRecipes(index);
+		for (int candidate = candidates.nextSetBit(0); candidate >= 0; candidate = candidates.nextSetBit(candidate + 1)) {
+			RebornRecipe recipe = index.get(candidate);
 			// This checks to see if it has all the inputs
 			if (!hasAllInputs(recipe)) continue;
-			if (!recipe.canCraft(blockEntity)) continue;
+			if (!recipe.canCraft(blockEntity)) {
+				// Depends on more than the inventory, such as fluids or a multiblock.
+				blockedExternally = true;
+				continue;
+			}
 
 			final List<ItemStack> outputs = recipe.outputs();
 
@@ -230,9 +331,31 @@ public class RecipeCrafter implements IUpgradeHandler {
 		}
 		setCurrentRecipe(null);
 		currentNeededTicks = 0;
+		idleUntilInventoryChange = !blockedExternally;
 		setIsActive();
 	}
 
+	/**
+	 * Gathers the recipes that can use any of the current input stacks, in recipe manager order.
+	 * The returned set is reused, so it must not be held on to across calls.
+	 */
+	private BitSet collectCandidateRecipes(RecipeIndex<?> index) {
+		candidateRecipes.clear();
+		for (int recipe : index.getWildcards()) {
+			candidateRecipes.set(recipe);
+		}
+		for (int slot : inputSlots) {
+			ItemStack stack = inventory.getStack(slot);
+			if (stack.isEmpty()) {
+				continue;
+			}
+			for (int recipe : index.getCandidates(stack.getItem())) {
+				candidateRecipes.set(recipe);
+			}
+		}
+		return candidateRecipes;
+	}
+
 	public boolean hasAllInputs() {
 		return hasAllInputs(currentRecipe);
 	}
@@ -256,19 +379,91 @@ public class RecipeCrafter implements IUpgradeHandler {
 	}
 
 	public void useAllInputs() {
+		useAllInputs(1);
+	}
+
+	/**
+	 * Uses the inputs of the current recipe for the given number of crafts in one pass
+	 *
+	 * @param crafts {@code int} Number of crafts to use inputs for
+	 */
+	public void useAllInputs(int crafts) {
 		if (currentRecipe == null) {
 			return;
 		}
 		for (SizedIngredient ingredient : currentRecipe.ingredients()) {
 			for (int inputSlot : inputSlots) {// Uses all the inputs
 				if (ingredient.test(inventory.getStack(inputSlot))) {
-					inventory.shrinkSlot(inputSlot, ingredient.count());
+					inventory.shrinkSlot(inputSlot, ingredient.count() * crafts);
 					break;
 				}
 			}
 		}
 	}
 
+	/**
+	 * Check if this crafter may finish several crafts of the same recipe in one tick
+	 *
+	 * @return {@code boolean} Returns true if crafts of a recipe always use and produce the same stacks
+	 */
+	protected boolean supportsBatchCrafting() {
+		return true;
+	}
+
+	/**
+	 * Works out how many crafts of the current recipe to finish this tick. Upgrades can make a recipe take less
+	 * than a tick, in which case as many crafts are done as fit in one tick, limited by the inputs, the space in
+	 * the outputs and the stored energy.
+	 *
+	 * @param outputs {@link List} Outputs of the current recipe
+	 * @return {@code int} Number of crafts to finish, at least one
+	 */
+	private int getBatchSize(List<ItemStack> outputs) {
+		double ticksPerCraft = currentRecipe.time() * (1.0 - getSpeedMultiplier());
+		if (ticksPerCraft >= 1 || !supportsBatchCrafting()) {
+			return 1;
+		}
+		int crafts = (int) (1.0 / ticksPerCraft);
+
+		// Ingredients can be taken from the same slot, so add up what each slot gives per craft first
+		int[] demand = new int[inputSlots.length];
+		for (SizedIngredient ingredient : currentRecipe.ingredients()) {
+			for (int i = 0; i < inputSlots.length; i++) {
+				if (ingredient.test(inventory.getStack(inputSlots[i]))) {
+					demand[i] += ingredient.count();
+					break;
+				}
+			}
+		}
+		for (int i = 0; i < inputSlots.length; i++) {
+			if (demand[i] > 0) {
+				crafts = Math.min(crafts, inventory.getStack(inputSlots[i]).getCount() / demand[i]);
+			}
+		}
+
+		for (int i = 0; i < outputs.size(); i++) {
+			ItemStack output = outputs.get(i);
+			if (output.isEmpty()) {
+				continue;
+			}
+			for (int j = 0; j < i; j++) {
+				if (outputSlots[j] == outputSlots[i]) {
+					// Outputs sharing a slot are only filled once per craft.
+					return 1;
+				}
+			}
+			ItemStack stack = inventory.getStack(outputSlots[i]);
+			int space = output.getMaxCount() - (stack.isEmpty() ? 0 : stack.getCount());
+			crafts = Math.min(crafts, space / output.getCount());
+		}
+
+		long euPerCraft = getEuPerTick(currentRecipe.power());
+		if (euPerCraft > 0) {
+			crafts = (int) Math.min(crafts, 1 + energy.getStored() / euPerCraft);
+		}
+		return Math.max(crafts, 1);
+	}
+
 	public boolean canFitOutput(ItemStack stack, int slot) {// Checks to see if it can fit the stack
 		if (stack.isEmpty()) {
 			return true;
@@ -328,7 +523,10 @@ public class RecipeCrafter implements IUpgradeHandler {
 	}
 
 	public boolean canCraftAgain() {
-		for (RebornRecipe recipe : RecipeUtils.getRecipes(blockEntity.getWorld(), recipeType)) {
+		RecipeIndex<?> index = RecipeIndex.of(blockEntity.getWorld(), recipeType);
+		BitSet candidates = collectCandidateRecipes(index);
+		for (int candidate = candidates.nextSetBit(0); candidate >= 0; candidate = candidates.nextSetBit(candidate + 1)) {
+			RebornRecipe recipe = index.get(candidate);
 			if (recipe.canCraft(blockEntity) && hasAllInputs(recipe)) {
 				final List<ItemStack> outputs = recipe.outputs();
 
@@ -375,19 +573,7 @@ public class RecipeCrafter implements IUpgradeHandler {
 		if (stack.isEmpty()) {
 			return false;
 		}
-
-		// Test with a stack with the max stack size as some independents will check the stack size.
-		// A bit of a hack but should work.
-		ItemStack largeStack = stack.copy();
-		largeStack.setCount(largeStack.getMaxCount());
-		for (RebornRecipe recipe : RecipeUtils.getRecipes(blockEntity.getWorld(), recipeType)) {
-			for (SizedIngredient ingredient : recipe.ingredients()) {
-				if (ingredient.test(largeStack)) {
-					return true;
-				}
-			}
-		}
-		return false;
+		return RecipeIndex.of(blockEntity.getWorld(), recipeType).isValidInput(stack);
 	}
 
 	@Override
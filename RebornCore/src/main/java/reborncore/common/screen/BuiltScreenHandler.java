@@ -25,8 +25,6 @@
 package reborncore.common.screen;
 
 import io.netty.buffer.Unpooled;
-import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
-import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.inventory.CraftingInventory;
@@ -49,22 +47,33 @@ import reborncore.common.util.ItemUtils;
 import reborncore.common.util.RangeUtil;
 import reborncore.mixin.ifaces.ServerPlayerEntityScreenHandler;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 public class BuiltScreenHandler extends ScreenHandler {
+	// Marks values a listener has never been sent
+	private static final Object NOT_SENT = new Object();
+
 	private final String name;
 
 	private final Predicate<PlayerEntity> canInteract;
 	private final List<Range<Integer>> playerSlotRanges;
 	private final List<Range<Integer>> blockEntitySlotRanges;
 
-	// Holds the SyncPair along with the last value
-	private final Map<IdentifiedSyncedObject<?>, Object> syncPairCache = new HashMap<>();
-	private final Int2ObjectMap<IdentifiedSyncedObject<?>> syncPairIdLookup = new Int2ObjectOpenHashMap<>();
+	// Synced objects, indexed by their id - 1
+	private final List<IdentifiedSyncedObject<?>> syncedObjects = new ArrayList<>();
+	// Values read from the synced objects on the last update
+	private Object[] currentValues = new Object[0];
+	// Set when a value changed since every listener was last sent its updates
+	private boolean valuesDirty = false;
+	// The values each listener was last sent
+	private final Map<ScreenHandlerListener, Object[]> sentValues = new IdentityHashMap<>();
 
 	private List<Consumer<CraftingInventory>> craftEvents;
 
@@ -86,12 +95,10 @@ public class BuiltScreenHandler extends ScreenHandler {
 
 	public void addObjectSync(final List<SyncedObject<?>> syncedObjects) {
 		for (final SyncedObject<?> syncedObject : syncedObjects) {
-			// Add a new sync pair to the cache with a null value
-			int id = syncPairCache.size() + 1;
-			var syncPair = new IdentifiedSyncedObject(syncedObject, id);
-			this.syncPairCache.put(syncPair, null);
-			this.syncPairIdLookup.put(id, syncPair);
+			int id = this.syncedObjects.size() + 1;
+			this.syncedObjects.add(new IdentifiedSyncedObject<>(syncedObject, id));
 		}
+		currentValues = Arrays.copyOf(currentValues, this.syncedObjects.size());
 	}
 
 	public void addCraftEvents(final List<Consumer<CraftingInventory>> craftEvents) {
@@ -114,63 +121,106 @@ public class BuiltScreenHandler extends ScreenHandler {
 	public void sendContentUpdates() {
 		super.sendContentUpdates();
 
+		if (listeners.isEmpty() || syncedObjects.isEmpty()) {
+			return;
+		}
+
+		readCurrentValues();
+		if (!valuesDirty) {
+			// Every listener already has the current values
+			return;
+		}
+
 		for (final ScreenHandlerListener listener : listeners) {
 			sendContentUpdatePacketToListener(listener);
 		}
+		valuesDirty = false;
 	}
 
 	@Override
 	public void addListener(final ScreenHandlerListener listener) {
 		super.addListener(listener);
 
+		readCurrentValues();
 		sendContentUpdatePacketToListener(listener);
 	}
 
-	private void sendContentUpdatePacketToListener(final ScreenHandlerListener listener) {
-		Map<IdentifiedSyncedObject<?>, Object> updatedValues = new HashMap<>();
+	@Override
+	public void removeListener(final ScreenHandlerListener listener) {
+		super.removeListener(listener);
 
-		this.syncPairCache.replaceAll((identifiedSyncedObject, cached) -> {
-			final Object value = identifiedSyncedObject.get();
+		sentValues.remove(listener);
+	}
 
-			if (!value.equals(cached)) {
-				updatedValues.put(identifiedSyncedObject, value);
-				return value;
+	private void readCurrentValues() {
+		for (int i = 0; i < syncedObjects.size(); i++) {
+			Object value = syncedObjects.get(i).get();
+			if (!Objects.equals(value, currentValues[i])) {
+				currentValues[i] = value;
+				valuesDirty = true;
 			}
-			return null;
-		});
+		}
+	}
 
-		if (updatedValues.isEmpty()) {
+	private void sendContentUpdatePacketToListener(final ScreenHandlerListener listener) {
+		if (!(listener instanceof ServerPlayerEntityScreenHandler serverPlayerEntityScreenHandler)) {
 			return;
 		}
 
-		byte[] data = writeScreenHandlerData(updatedValues);
-		if (listener instanceof ServerPlayerEntityScreenHandler serverPlayerEntityScreenHandler) {
-			NetworkManager.sendToPlayer(new ScreenHandlerUpdatePayload(data), serverPlayerEntityScreenHandler.rc_getServerPlayerEntity());
+		Object[] sent = sentValues.computeIfAbsent(listener, l -> {
+			Object[] values = new Object[syncedObjects.size()];
+			Arrays.fill(values, NOT_SENT);
+			return values;
+		});
+
+		int changed = 0;
+		for (int i = 0; i < sent.length; i++) {
+			if (!Objects.equals(sent[i], currentValues[i])) {
+				changed++;
+			}
 		}
+
+		if (changed == 0) {
+			return;
+		}
+
+		byte[] data = writeScreenHandlerData(sent, changed);
+		NetworkManager.sendToPlayer(new ScreenHandlerUpdatePayload(data), serverPlayerEntityScreenHandler.rc_getServerPlayerEntity());
 	}
 
+	/**
+	 * Writes every value that differs from what the listener was last sent, and records it as sent.
+	 */
 	@SuppressWarnings({"rawtypes", "unchecked"})
-	private byte[] writeScreenHandlerData(Map<IdentifiedSyncedObject<?>, Object> updatedValues) {
+	private byte[] writeScreenHandlerData(Object[] sent, int changed) {
 		RegistryByteBuf byteBuf = new RegistryByteBuf(PacketByteBufs.create(), blockEntity.getWorld().getRegistryManager());
 
-		byteBuf.writeInt(updatedValues.size());
-		for (Map.Entry<IdentifiedSyncedObject<?>, Object> entry : updatedValues.entrySet()) {
-			PacketCodec codec = entry.getKey().object().codec();
-			byteBuf.writeInt(entry.getKey().id());
-			codec.encode(byteBuf, entry.getValue());
+		byteBuf.writeVarInt(changed);
+		for (int i = 0; i < sent.length; i++) {
+			if (Objects.equals(sent[i], currentValues[i])) {
+				continue;
+			}
+			IdentifiedSyncedObject<?> syncedObject = syncedObjects.get(i);
+			PacketCodec codec = syncedObject.object().codec();
+			byteBuf.writeVarInt(syncedObject.id());
+			codec.encode(byteBuf, currentValues[i]);
+			sent[i] = currentValues[i];
 		}
 
-		return byteBuf.array();
+		// Only the written bytes, not the whole backing array
+		byte[] data = new byte[byteBuf.readableBytes()];
+		byteBuf.readBytes(data);
+		return data;
 	}
 
 	@SuppressWarnings({"rawtypes", "unchecked"})
 	public void applyScreenHandlerData(byte[] data) {
 		RegistryByteBuf byteBuf = new RegistryByteBuf(new PacketByteBuf(Unpooled.wrappedBuffer(data)), blockEntity.getWorld().getRegistryManager());
-		int size = byteBuf.readInt();
+		int size = byteBuf.readVarInt();
 
 		for (int i = 0; i < size; i++) {
-			int id = byteBuf.readInt();
-			IdentifiedSyncedObject syncedObject = syncPairIdLookup.get(id);
+			int id = byteBuf.readVarInt();
+			IdentifiedSyncedObject syncedObject = syncedObjects.get(id - 1);
 			Object value = syncedObject.object().codec().decode(byteBuf);
 			syncedObject.set(value);
 		}
@@ -0,0 +1,165 @@
+/*
+ * This file is part of RebornCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2024 TeamReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package reborncore.common.util;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.World;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * Notifies listeners when a block inside a watched box changes on the server.
+ * <p>
+ * Listeners are indexed by chunk section, so a block change only looks at the listeners whose box touches the
+ * section it happened in. Fed by {@link reborncore.mixin.common.MixinWorldChunk}.
+ * <p>
+ * Listeners are called on the server thread and must not register or unregister from inside
+ * {@link Listener#onBlockChanged(BlockPos)}. A world's listeners are dropped when it unloads, as they usually
+ * reference a block entity and through it the world.
+ */
+public final class BlockChangeTracker {
+	private static final Map<World, WorldListeners> LISTENERS = new HashMap<>();
+
+	private BlockChangeTracker() {
+	}
+
+	/**
+	 * Starts watching a box. A listener can only watch one box per world, registering again replaces the old one.
+	 *
+	 * @param world    {@link World} World to watch, ignored on the client
+	 * @param box      {@link BlockBox} Box of positions to watch, inclusive
+	 * @param listener {@link Listener} Listener to notify
+	 */
+	public static void register(World world, BlockBox box, Listener listener) {
+		if (world.isClient) {
+			return;
+		}
+		LISTENERS.computeIfAbsent(world, w -> new WorldListeners()).add(box, listener);
+	}
+
+	public static void unregister(World world, Listener listener) {
+		WorldListeners listeners = LISTENERS.get(world);
+		if (listeners != null) {
+			listeners.remove(listener);
+			if (listeners.isEmpty()) {
+				LISTENERS.remove(world);
+			}
+		}
+	}
+
+	public static void onWorldUnload(World world) {
+		LISTENERS.remove(world);
+	}
+
+	public static void clear() {
+		LISTENERS.clear();
+	}
+
+	public static void onBlockChanged(World world, BlockPos pos) {
+		if (LISTENERS.isEmpty()) {
+			return;
+		}
+		WorldListeners listeners = LISTENERS.get(world);
+		if (listeners != null) {
+			listeners.notify(pos);
+		}
+	}
+
+	public interface Listener {
+		void onBlockChanged(BlockPos pos);
+	}
+
+	private record Entry(BlockBox box, Listener listener) {
+	}
+
+	private static class WorldListeners {
+		private final Long2ObjectOpenHashMap<List<Entry>> bySection = new Long2ObjectOpenHashMap<>();
+		private final Map<Listener, Entry> entries = new IdentityHashMap<>();
+
+		void add(BlockBox box, Listener listener) {
+			remove(listener);
+			Entry entry = new Entry(box, listener);
+			entries.put(listener, entry);
+			forEachSection(box, section -> bySection.computeIfAbsent(section, s -> new ArrayList<>()).add(entry));
+		}
+
+		void remove(Listener listener) {
+			Entry entry = entries.remove(listener);
+			if (entry == null) {
+				return;
+			}
+			forEachSection(entry.box(), section -> {
+				List<Entry> list = bySection.get(section);
+				if (list != null) {
+					list.remove(entry);
+					if (list.isEmpty()) {
+						bySection.remove(section);
+					}
+				}
+			});
+		}
+
+		boolean isEmpty() {
+			return entries.isEmpty();
+		}
+
+		void notify(BlockPos pos) {
+			List<Entry> list = bySection.get(ChunkSectionPos.toLong(pos));
+			if (list == null) {
+				return;
+			}
+			for (int i = 0; i < list.size(); i++) {
+				Entry entry = list.get(i);
+				if (entry.box().contains(pos)) {
+					entry.listener().onBlockChanged(pos);
+				}
+			}
+		}
+
+		private static void forEachSection(BlockBox box, LongConsumer consumer) {
+			int minX = ChunkSectionPos.getSectionCoord(box.getMinX());
+			int minY = ChunkSectionPos.getSectionCoord(box.getMinY());
+			int minZ = ChunkSectionPos.getSectionCoord(box.getMinZ());
+			int maxX = ChunkSectionPos.getSectionCoord(box.getMaxX());
+			int maxY = ChunkSectionPos.getSectionCoord(box.getMaxY());
+			int maxZ = ChunkSectionPos.getSectionCoord(box.getMaxZ());
+			for (int x = minX; x <= maxX; x++) {
+				for (int y = minY; y <= maxY; y++) {
+					for (int z = minZ; z <= maxZ; z++) {
+						consumer.accept(ChunkSectionPos.asLong(x, y, z));
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,208 @@
+/*
+ * This file is part of RebornCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2024 TeamReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package reborncore.common.util;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2LongOpenHashMap;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.World;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Keeps the players of each server world in buckets by chunk, so that machines can find nearby players without
+ * going over every player in the world.
+ * <p>
+ * Buckets are refreshed at the start of every world tick, and a player only moves between buckets when they
+ * entered another chunk. Queries run on the server thread and return nothing on the client. A world's buckets are
+ * dropped when it unloads, as the indexed players would otherwise keep it in memory.
+ */
+public final class PlayerIndex {
+	private static final Map<World, WorldPlayers> PLAYERS = new HashMap<>();
+
+	private PlayerIndex() {
+	}
+
+	public static void onWorldTick(ServerWorld world) {
+		WorldPlayers players = PLAYERS.get(world);
+		if (players == null) {
+			if (world.getPlayers().isEmpty()) {
+				return;
+			}
+			players = new WorldPlayers();
+			PLAYERS.put(world, players);
+		}
+		players.refresh(world);
+	}
+
+	public static void onWorldUnload(ServerWorld world) {
+		PLAYERS.remove(world);
+	}
+
+	public static void clear() {
+		PLAYERS.clear();
+	}
+
+	/**
+	 * Checks whether any player within the radius matches the predicate.
+	 *
+	 * @param world     {@link World} World to look in
+	 * @param center    {@link Vec3d} Center to measure from
+	 * @param radius    {@code double} Maximum distance to the player's position
+	 * @param predicate {@link Predicate} Test for the players in range
+	 * @return {@code boolean} {@code true} if a player in range matched
+	 */
+	public static boolean anyPlayerNear(World world, Vec3d center, double radius, Predicate<ServerPlayerEntity> predicate) {
+		WorldPlayers players = PLAYERS.get(world);
+		if (players == null) {
+			return false;
+		}
+		double squaredRadius = radius * radius;
+		Box box = new Box(center, center).expand(radius);
+		for (List<ServerPlayerEntity> bucket : players.getBuckets(box)) {
+			for (ServerPlayerEntity player : bucket) {
+				if (player.squaredDistanceTo(center) <= squaredRadius && predicate.test(player)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Calls the consumer for every player whose bounding box intersects the box.
+	 *
+	 * @param world    {@link World} World to look in
+	 * @param box      {@link Box} Box to look in
+	 * @param consumer {@link Consumer} Called for each player found
+	 */
+	public static void forEachPlayerIn(World world, Box box, Consumer<ServerPlayerEntity> consumer) {
+		WorldPlayers players = PLAYERS.get(world);
+		if (players == null) {
+			return;
+		}
+		// A player standing on a chunk border can stick out of the chunk of their position
+		Box searchBox = box.expand(1);
+		for (List<ServerPlayerEntity> bucket : players.getBuckets(searchBox)) {
+			for (ServerPlayerEntity player : bucket) {
+				if (player.getBoundingBox().intersects(box)) {
+					consumer.accept(player);
+				}
+			}
+		}
+	}
+
+	private static class WorldPlayers {
+		private static final long NOT_INDEXED = Long.MIN_VALUE;
+
+		private final Long2ObjectOpenHashMap<List<ServerPlayerEntity>> buckets = new Long2ObjectOpenHashMap<>();
+		private final Reference2LongOpenHashMap<ServerPlayerEntity> playerChunks = new Reference2LongOpenHashMap<>();
+
+		WorldPlayers() {
+			playerChunks.defaultReturnValue(NOT_INDEXED);
+		}
+
+		private void refresh(ServerWorld world) {
+			List<ServerPlayerEntity> worldPlayers = world.getPlayers();
+			for (ServerPlayerEntity player : worldPlayers) {
+				long chunk = player.getChunkPos().toLong();
+				long previous = playerChunks.put(player, chunk);
+				if (previous != chunk) {
+					if (previous != NOT_INDEXED) {
+						removeFromBucket(previous, player);
+					}
+					buckets.computeIfAbsent(chunk, c -> new ArrayList<>(2)).add(player);
+				}
+			}
+
+			// Players that left the world, only looked for when the counts do not add up
+			if (playerChunks.size() != worldPlayers.size()) {
+				playerChunks.reference2LongEntrySet().removeIf(entry -> {
+					ServerPlayerEntity player = entry.getKey();
+					if (player.isRemoved() || player.getWorld() != world) {
+						removeFromBucket(entry.getLongValue(), player);
+						return true;
+					}
+					return false;
+				});
+			}
+		}
+
+		private void removeFromBucket(long chunk, ServerPlayerEntity player) {
+			List<ServerPlayerEntity> bucket = buckets.get(chunk);
+			if (bucket != null) {
+				bucket.remove(player);
+				if (bucket.isEmpty()) {
+					buckets.remove(chunk);
+				}
+			}
+		}
+
+		private Iterable<List<ServerPlayerEntity>> getBuckets(Box box) {
+			int minX = ChunkSectionPos.getSectionCoord(MathHelper.floor(box.minX));
+			int maxX = ChunkSectionPos.getSectionCoord(MathHelper.floor(box.maxX));
+			int minZ = ChunkSectionPos.getSectionCoord(MathHelper.floor(box.minZ));
+			int maxZ = ChunkSectionPos.getSectionCoord(MathHelper.floor(box.maxZ));
+
+			// Large areas with few occupied chunks are cheaper to check bucket by bucket
+			long area = (long) (maxX - minX + 1) * (maxZ - minZ + 1);
+			if (area > buckets.size()) {
+				List<List<ServerPlayerEntity>> found = new ArrayList<>();
+				for (Long2ObjectMap.Entry<List<ServerPlayerEntity>> entry : buckets.long2ObjectEntrySet()) {
+					int x = ChunkPos.getPackedX(entry.getLongKey());
+					int z = ChunkPos.getPackedZ(entry.getLongKey());
+					if (x >= minX && x <= maxX && z >= minZ && z <= maxZ) {
+						found.add(entry.getValue());
+					}
+				}
+				return found;
+			}
+
+			List<List<ServerPlayerEntity>> found = new ArrayList<>();
+			for (int x = minX; x <= maxX; x++) {
+				for (int z = minZ; z <= maxZ; z++) {
+					List<ServerPlayerEntity> bucket = buckets.get(ChunkPos.toLong(x, z));
+					if (bucket != null) {
+						found.add(bucket);
+					}
+				}
+			}
+			return found;
+		}
+	}
+}
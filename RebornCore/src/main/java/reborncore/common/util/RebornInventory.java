@@ -40,6 +40,7 @@ public class RebornInventory<T extends MachineBaseBlockEntity> extends Inventory
 	private final int stackLimit;
 	private final T blockEntity;
 	private boolean hasChanged = false;
+	private int changeCount = 0;
 	private final IInventoryAccess<T> inventoryAccess;
 
 	public RebornInventory(int size, String invName, int invStackLimit, T blockEntity, IInventoryAccess<T> access) {
@@ -104,6 +105,7 @@ public class RebornInventory<T extends MachineBaseBlockEntity> extends Inventory
 		NbtCompound nbtTagList = data.getCompound(tag);
 		deserializeNBT(nbtTagList, registryLookup);
 		hasChanged = true;
+		changeCount++;
 	}
 
 	public void write(NbtCompound data, RegistryWrapper.WrapperLookup registryLookup) {
@@ -151,9 +153,20 @@ public class RebornInventory<T extends MachineBaseBlockEntity> extends Inventory
 		return stackLimit;
 	}
 
+	/**
+	 * Returns a counter that changes every time the inventory is marked dirty. Unlike {@link #hasChanged()} it is
+	 * never reset, so any number of observers can use it to tell whether the inventory changed since they last looked.
+	 *
+	 * @return {@code int} Current change count
+	 */
+	public int getChangeCount() {
+		return changeCount;
+	}
+
 	@Override
 	public void markDirty() {
 		super.markDirty();
+		changeCount++;
 		blockEntity.markDirty();
 	}
 
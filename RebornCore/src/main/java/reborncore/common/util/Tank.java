@@ -34,17 +34,28 @@ import net.minecraft.fluid.Fluids;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.registry.RegistryWrapper;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import reborncore.common.fluid.FluidValue;
 import reborncore.common.fluid.container.FluidInstance;
 import reborncore.common.screen.Syncable;
 import reborncore.common.util.serialization.SerializationUtil;
 
+import java.util.ArrayDeque;
 import java.util.function.UnaryOperator;
 
-public class Tank extends SnapshotParticipant<FluidInstance> implements Syncable, SingleSlotStorage<FluidVariant> {
+/**
+ * A single fluid tank. The contents are kept as a {@link FluidVariant} and a raw amount so that transfers do not
+ * allocate; {@link FluidInstance} is only built as an immutable view for serialization, syncing and GUIs.
+ */
+public class Tank extends SnapshotParticipant<Tank.TankSnapshot> implements Syncable, SingleSlotStorage<FluidVariant> {
 	private final String name;
-	private FluidInstance fluidInstance = new FluidInstance();
 	private final FluidValue capacity;
+	// May hold a fluid while the amount is 0, see isEmptyFluid
+	private FluidVariant variant = FluidVariant.blank();
+	private long amount;
+	private final ArrayDeque<TankSnapshot> snapshotPool = new ArrayDeque<>();
+	@Nullable
+	private FluidInstance fluidInstance = FluidInstance.EMPTY;
 
 	public Tank(String name, FluidValue capacity) {
 		super();
@@ -54,12 +65,15 @@ public class Tank extends SnapshotParticipant<FluidInstance> implements Syncable
 
 	@NotNull
 	public FluidInstance getFluidInstance() {
+		if (fluidInstance == null) {
+			fluidInstance = new FluidInstance(variant, FluidValue.fromRaw(amount));
+		}
 		return fluidInstance;
 	}
 
 	@NotNull
 	public Fluid getFluid() {
-		return getFluidInstance().fluid();
+		return variant.getFluid();
 	}
 
 	public FluidValue getFluidValueCapacity() {
@@ -67,7 +81,7 @@ public class Tank extends SnapshotParticipant<FluidInstance> implements Syncable
 	}
 
 	public FluidValue getFreeSpace() {
-		return getFluidValueCapacity().subtract(getFluidAmount());
+		return FluidValue.fromRaw(capacity.getRawValue() - amount);
 	}
 
 	public boolean canFit(Fluid fluid, FluidValue amount) {
@@ -75,22 +89,22 @@ public class Tank extends SnapshotParticipant<FluidInstance> implements Syncable
 	}
 
 	public boolean isEmpty() {
-		return getFluidInstance().isEmpty();
+		return variant.isBlank() || amount == 0;
 	}
 
 	public boolean isFull() {
-		return !getFluidInstance().isEmpty() && getFluidInstance().getAmount().equalOrMoreThan(getFluidValueCapacity());
+		return !isEmpty() && amount >= capacity.getRawValue();
 	}
 
 	public final NbtCompound write(NbtCompound nbt, RegistryWrapper.WrapperLookup wrapperLookup) {
-		NbtCompound tankData = SerializationUtil.writeNbt(FluidInstance.CODEC, fluidInstance, wrapperLookup);
+		NbtCompound tankData = SerializationUtil.writeNbt(FluidInstance.CODEC, getFluidInstance(), wrapperLookup);
 		nbt.put(name, tankData);
 		return nbt;
 	}
 
 	public void setFluidAmount(FluidValue amount) {
-		if (!fluidInstance.isEmptyFluid()) {
-			modifyFluid(fluidInstance -> fluidInstance.withAmount(amount));
+		if (!variant.isBlank()) {
+			setContents(variant, amount.getRawValue());
 		}
 	}
 
@@ -100,13 +114,13 @@ public class Tank extends SnapshotParticipant<FluidInstance> implements Syncable
 			setFluid(Fluids.EMPTY);
 
 			NbtCompound tankData = nbt.getCompound(name);
-			fluidInstance = SerializationUtil.parseNbt(FluidInstance.CODEC, tankData, wrapperLookup, () -> FluidInstance.EMPTY, "tank data");
+			setFluidInstance(SerializationUtil.parseNbt(FluidInstance.CODEC, tankData, wrapperLookup, () -> FluidInstance.EMPTY, "tank data"));
 		}
 		return this;
 	}
 
 	public void setFluid(@NotNull Fluid f) {
-		modifyFluid(fluidInstance -> fluidInstance.withFluid(f));
+		setContents(FluidVariant.of(f), amount);
 	}
 
 	@Override
@@ -119,13 +133,22 @@ public class Tank extends SnapshotParticipant<FluidInstance> implements Syncable
 	}
 
 	public void modifyFluid(UnaryOperator<FluidInstance> operator) {
-		setFluidInstance(operator.apply(fluidInstance));
+		setFluidInstance(operator.apply(getFluidInstance()));
 	}
 
 	public void setFluidInstance(@NotNull FluidInstance fluidInstance) {
+		// FluidInstance hides the fluid of an empty instance, keep it like the instance did
+		FluidVariant newVariant = fluidInstance.isEmpty() ? FluidVariant.of(fluidInstance.fluid()) : fluidInstance.fluidVariant();
+		setContents(newVariant, fluidInstance.getAmount().getRawValue());
 		this.fluidInstance = fluidInstance;
 	}
 
+	private void setContents(FluidVariant variant, long amount) {
+		this.variant = variant;
+		this.amount = amount;
+		this.fluidInstance = null;
+	}
+
 	@Override
 	public long insert(FluidVariant insertedVariant, long maxAmount, TransactionContext transaction) {
 		StoragePreconditions.notBlankNotNegative(insertedVariant, maxAmount);
@@ -138,11 +161,8 @@ public class Tank extends SnapshotParticipant<FluidInstance> implements Syncable
 				updateSnapshots(transaction);
 
 				// Just in case.
-				if (currentVariant.isBlank()) {
-					modifyFluid(fluidInstance -> fluidInstance.withAmount(FluidValue.EMPTY));
-				}
-
-				modifyFluid(fluidInstance -> fluidInstance.withFluid(insertedVariant.getFluid()).addAmount(FluidValue.fromRaw(insertedAmount)));
+				long currentAmount = currentVariant.isBlank() ? 0 : amount;
+				setContents(insertedVariant, currentAmount + insertedAmount);
 			}
 
 			return insertedAmount;
@@ -162,7 +182,7 @@ public class Tank extends SnapshotParticipant<FluidInstance> implements Syncable
 			if (extractedAmount > 0) {
 				updateSnapshots(transaction);
 
-				modifyFluid(fluidInstance -> fluidInstance.subtractAmount(FluidValue.fromRaw(extractedAmount)));
+				setContents(variant, amount - extractedAmount);
 			}
 
 			return extractedAmount;
@@ -178,13 +198,13 @@ public class Tank extends SnapshotParticipant<FluidInstance> implements Syncable
 
 	@Override
 	public FluidVariant getResource() {
-		return fluidInstance.fluidVariant();
+		if (isEmpty()) return FluidVariant.blank();
+		return variant;
 	}
 
 	@Override
-	@SuppressWarnings({"deprecation"})
 	public long getAmount() {
-		return fluidInstance.getAmount().getRawValue();
+		return amount;
 	}
 
 	@Override
@@ -194,12 +214,32 @@ public class Tank extends SnapshotParticipant<FluidInstance> implements Syncable
 	}
 
 	@Override
-	protected FluidInstance createSnapshot() {
-		return fluidInstance;
+	protected TankSnapshot createSnapshot() {
+		TankSnapshot snapshot = snapshotPool.poll();
+		if (snapshot == null) {
+			snapshot = new TankSnapshot();
+		}
+		snapshot.variant = variant;
+		snapshot.amount = amount;
+		return snapshot;
+	}
+
+	@Override
+	protected void readSnapshot(TankSnapshot snapshot) {
+		setContents(snapshot.variant, snapshot.amount);
 	}
 
 	@Override
-	protected void readSnapshot(FluidInstance snapshot) {
-		setFluidInstance(snapshot);
+	protected void releaseSnapshot(TankSnapshot snapshot) {
+		snapshot.variant = null;
+		snapshotPool.push(snapshot);
+	}
+
+	/**
+	 * Tank contents saved by a transaction, reused once the transaction is closed.
+	 */
+	static final class TankSnapshot {
+		private FluidVariant variant;
+		private long amount;
 	}
 }
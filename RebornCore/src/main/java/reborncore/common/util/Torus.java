@@ -24,86 +24,123 @@
 
 package reborncore.common.util;
 
-import com.google.common.collect.ImmutableList;
-import it.unimi.dsi.fastutil.ints.Int2IntMap;
-import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
-import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import net.minecraft.util.math.BlockPos;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 public class Torus {
-	private static final ExecutorService GEN_EXECUTOR = Executors.newSingleThreadExecutor();
-	private static Int2IntMap torusSizeCache;
-	private static Int2ObjectOpenHashMap<ImmutableList<BlockPos>> torusListCache;
+	private static final Map<Integer, long[]> POSITION_CACHE = new ConcurrentHashMap<>();
+
 	public static List<BlockPos> generate(BlockPos origin, int radius) {
-		List<BlockPos> posLists = new ArrayList<>();
-		for (int x = -radius; x < radius; x++) {
-			for (int y = -radius; y < radius; y++) {
-				for (int z = -radius; z < radius; z++) {
-					if (Math.pow(radius / 2 - Math.sqrt(Math.pow(x, 2) + Math.pow(y, 2)), 2) + Math.pow(z, 2) < Math.pow(radius * 0.05, 2)) {
-						posLists.add(origin.add(x, z, y));
-					}
-				}
-			}
+		long[] offsets = getPackedOriginPositions(radius);
+		List<BlockPos> posLists = new ArrayList<>(offsets.length);
+		for (long offset : offsets) {
+			posLists.add(origin.add(BlockPos.unpackLongX(offset), BlockPos.unpackLongY(offset), BlockPos.unpackLongZ(offset)));
 		}
 
 		return posLists;
 	}
-	public static List<BlockPos> getOriginPositions(int radius){
-		return torusListCache.get(radius);
+
+	/**
+	 * Gets the positions of a torus relative to its center, packed with {@link BlockPos#asLong(int, int, int)}.
+	 * Computed on first use and cached, the returned array is shared and must not be modified.
+	 *
+	 * @param radius {@code int} Radius of the torus
+	 * @return {@code long[]} Packed positions of the torus
+	 */
+	public static long[] getPackedOriginPositions(int radius) {
+		long[] positions = POSITION_CACHE.get(radius);
+		if (positions == null) {
+			positions = POSITION_CACHE.computeIfAbsent(radius, Torus::computePositions);
+		}
+
+		return positions;
+	}
+
+	public static int getSize(int radius) {
+		return getPackedOriginPositions(radius).length;
 	}
+
+	/**
+	 * Precomputes every torus up to <code>maxRadius</code> in the background. Nothing waits on this,
+	 * {@link #getPackedOriginPositions(int)} computes any radius that is not ready yet.
+	 *
+	 * @param maxRadius {@code int} Largest radius that is expected to be used
+	 */
 	public static void genSizeMap(int maxRadius) {
-		if (torusSizeCache != null) {
-			// Let's not do this again
-			return;
-		}
 		// 10 is added as the control computer has a base of around 6 less
 		final int sizeToCompute = maxRadius + 10;
 
-		torusSizeCache = new Int2IntOpenHashMap(sizeToCompute);
-		torusListCache = new Int2ObjectOpenHashMap<>(sizeToCompute);
-		for (int i = 0; i < sizeToCompute; i++) {
-			final int radius = i;
-			GEN_EXECUTOR.submit(() -> {
-				int size = 0;
-				ArrayList<BlockPos> list = new ArrayList<>();
-				for (int x = -radius; x < radius; x++) {
-					for (int y = -radius; y < radius; y++) {
-						for (int z = -radius; z < radius; z++) {
-							if (Math.pow(radius / 2 - Math.sqrt(Math.pow(x, 2) + Math.pow(y, 2)), 2) + Math.pow(z, 2) < Math.pow(radius * 0.05, 2)) {
-								size++;
-								list.add(new BlockPos(x,z,y));
-							}
-						}
-					}
-				}
-				torusSizeCache.put(radius, size);
-				torusListCache.put(radius, ImmutableList.copyOf(list));
-			});
+		ForkJoinPool.commonPool().execute(() -> IntStream.range(0, sizeToCompute)
+			.parallel()
+			.forEach(Torus::getPackedOriginPositions));
+	}
+
+	private static long[] computePositions(int radius) {
+		if (radius <= 0) {
+			return new long[0];
 		}
 
-		// Finish running the tasks, and then shutdown the ExecutorService. This call does not stall the main thread
-		GEN_EXECUTOR.shutdown();
+		final int ringRadius = radius / 2;
+		final double thicknessSquared = Math.pow(radius * 0.05, 2);
+		final int thickness = (int) Math.ceil(radius * 0.05);
+
+		// Only points whose distance from the axis is within the thickness of the ring can match
+		final long innerSquared = ringRadius > thickness ? (long) (ringRadius - thickness) * (ringRadius - thickness) : 0;
+		final long outerSquared = (long) (ringRadius + thickness) * (ringRadius + thickness);
+		final int minZ = Math.max(-radius, -thickness);
+		final int maxZ = Math.min(radius - 1, thickness);
+
+		LongArrayList positions = new LongArrayList();
+		for (int x = -radius; x < radius; x++) {
+			long xSquared = (long) x * x;
+			if (xSquared > outerSquared) {
+				continue;
+			}
+			int outerY = (int) floorSqrt(outerSquared - xSquared);
+			int innerY = xSquared < innerSquared ? (int) ceilSqrt(innerSquared - xSquared) : 0;
+
+			// Negative half of the shell, then the positive half
+			for (int y = Math.max(-radius, -outerY); y <= -innerY; y++) {
+				addColumn(positions, x, y, minZ, maxZ, ringRadius, thicknessSquared);
+			}
+			for (int y = Math.max(innerY, 1); y <= Math.min(radius - 1, outerY); y++) {
+				addColumn(positions, x, y, minZ, maxZ, ringRadius, thicknessSquared);
+			}
+		}
+
+		return positions.toLongArray();
 	}
 
-	/**
-	 * @return {@link Int2IntMap}
-	 * @throws RuntimeException If failed to initialize the map
-	 */
-	public static Int2IntMap getTorusSizeCache() {
-		if (!GEN_EXECUTOR.isShutdown()) {
-			try {
-				GEN_EXECUTOR.awaitTermination(1, TimeUnit.SECONDS);
-			} catch (InterruptedException e) {
-				throw new RuntimeException("Reborn core failed to initialize the torus cache", e);
+	private static void addColumn(LongArrayList positions, int x, int y, int minZ, int maxZ, int ringRadius, double thicknessSquared) {
+		// Same test the positions have always been generated with, so existing reactors keep their shape
+		double ring = Math.pow(ringRadius - Math.sqrt(x * x + y * y), 2);
+		for (int z = minZ; z <= maxZ; z++) {
+			if (ring + z * z < thicknessSquared) {
+				positions.add(BlockPos.asLong(x, z, y));
 			}
 		}
+	}
+
+	private static long floorSqrt(long value) {
+		long root = (long) Math.sqrt(value);
+		while (root * root > value) {
+			root--;
+		}
+		while ((root + 1) * (root + 1) <= value) {
+			root++;
+		}
+		return root;
+	}
 
-		return torusSizeCache;
+	private static long ceilSqrt(long value) {
+		long root = floorSqrt(value);
+		return root * root == value ? root : root + 1;
 	}
 }
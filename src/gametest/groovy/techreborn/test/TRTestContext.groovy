@@ -89,6 +89,15 @@ class TRTestContext extends TestContext {
 			blockEntity.inventory.setStack(slot, stack)
 		}
 
+		def output(ItemStack stack, int slot = -1) {
+			if (slot == -1) {
+				// If not slot is provided use the first output slot
+				slot = blockEntity.crafter.outputSlots[0]
+			}
+
+			blockEntity.inventory.setStack(slot, stack)
+		}
+
 		def expectOutput(ItemConvertible item, int ticks, int slot = -1) {
 			expectOutput(new ItemStack(item), ticks, slot)
 		}
@@ -106,6 +115,23 @@ class TRTestContext extends TestContext {
 			}
 		}
 
+		/**
+		 * Expect the first input and output slots to hold exactly these stacks before the test times out
+		 */
+		def expectSlots(ItemStack input, ItemStack output) {
+			int inputSlot = blockEntity.crafter.inputSlots[0]
+			int outputSlot = blockEntity.crafter.outputSlots[0]
+
+			addFinalTask {
+				if (!ItemStack.areEqual(blockEntity.inventory.getStack(inputSlot), input)) {
+					throwGameTestException("Expected $input in slot $inputSlot but found ${blockEntity.inventory.getStack(inputSlot)}")
+				}
+				if (!ItemStack.areEqual(blockEntity.inventory.getStack(outputSlot), output)) {
+					throwGameTestException("Expected $output in slot $outputSlot but found ${blockEntity.inventory.getStack(outputSlot)}")
+				}
+			}
+		}
+
 		def withUpgrades(TRContent.Upgrades upgrade, int count = -1) {
 			count = (count != -1 ? count : blockEntity.getUpgradeSlotCount()) -1
 
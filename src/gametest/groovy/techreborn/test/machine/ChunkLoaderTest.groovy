@@ -0,0 +1,69 @@
+/*
+ * This file is part of TechReborn, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2020 TechReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package techreborn.test.machine
+
+import net.minecraft.test.GameTest
+import net.minecraft.util.math.BlockPos
+import net.minecraft.util.math.ChunkPos
+import reborncore.common.chunkloading.ChunkLoaderManager
+import techreborn.test.TRGameTest
+import techreborn.test.TRTestContext
+
+class ChunkLoaderTest extends TRGameTest {
+	@GameTest(templateName = "fabric-gametest-api-v1:empty", tickLimit = 20)
+	def testSharedChunkKeepsTicket(TRTestContext context) {
+		/**
+		 * Test that a chunk loaded by two chunk loaders keeps its ticket until both have released it
+		 */
+		def world = context.world
+		def manager = ChunkLoaderManager.get(world)
+		def loaderA = context.getAbsolutePos(new BlockPos(0, 1, 0))
+		def loaderB = context.getAbsolutePos(new BlockPos(1, 1, 0))
+		// Well away from the test, so nothing else keeps it loaded
+		def chunk = new ChunkPos(new ChunkPos(loaderA).x + 64, new ChunkPos(loaderA).z)
+
+		manager.loadChunk(world, chunk, loaderA, "test")
+		manager.loadChunk(world, chunk, loaderB, "test")
+		expectTicket(context, chunk, true, "both chunk loaders are active")
+
+		manager.unloadChunkLoader(world, loaderA)
+		expectTicket(context, chunk, true, "one chunk loader is still active")
+		if (!manager.isChunkLoaded(world, chunk, loaderB)) {
+			context.throwGameTestException("Chunk is no longer loaded by the remaining chunk loader")
+		}
+
+		manager.unloadChunk(world, chunk, loaderB)
+		expectTicket(context, chunk, false, "both chunk loaders released the chunk")
+
+		context.complete()
+	}
+
+	private static void expectTicket(TRTestContext context, ChunkPos chunk, boolean expected, String when) {
+		boolean hasTicket = context.world.chunkManager.getChunkLoadingDebugInfo(chunk).contains("reborncore:chunk_loader")
+		if (hasTicket != expected) {
+			context.throwGameTestException("Expected the chunk ${expected ? "to" : "not to"} have a ticket when $when")
+		}
+	}
+}
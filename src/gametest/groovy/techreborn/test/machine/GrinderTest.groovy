@@ -24,6 +24,7 @@
 
 package techreborn.test.machine
 
+import net.minecraft.item.ItemStack
 import net.minecraft.item.Items
 import net.minecraft.test.GameTest
 import techreborn.init.TRContent
@@ -44,4 +45,34 @@ class GrinderTest extends TRGameTest {
 			expectOutput(TRContent.Dusts.COAL, 116)
 		}
 	}
+
+	@GameTest(templateName = "fabric-gametest-api-v1:empty", tickLimit = 15)
+	def testGrindBatch(TRTestContext context) {
+		/**
+		 * Test that a fully overclocked grinder finishes all crafts of a sub-tick recipe in one cycle.
+		 * One craft at a time would need two ticks per feather and time out.
+		 */
+		context.poweredMachine(TRContent.Machine.GRINDER) {
+			input(new ItemStack(Items.FEATHER, 8))
+
+			withUpgrades(TRContent.Upgrades.OVERCLOCKER)
+
+			expectSlots(ItemStack.EMPTY, new ItemStack(Items.STRING, 8))
+		}
+	}
+
+	@GameTest(templateName = "fabric-gametest-api-v1:empty", tickLimit = 40)
+	def testGrindBatchOutputFull(TRTestContext context) {
+		/**
+		 * Test that a batch stops at the space left in the output slot and leaves the remaining inputs
+		 */
+		context.poweredMachine(TRContent.Machine.GRINDER) {
+			input(new ItemStack(Items.FEATHER, 16))
+			output(new ItemStack(Items.STRING, 60))
+
+			withUpgrades(TRContent.Upgrades.OVERCLOCKER)
+
+			expectSlots(new ItemStack(Items.FEATHER, 12), new ItemStack(Items.STRING, 64))
+		}
+	}
 }
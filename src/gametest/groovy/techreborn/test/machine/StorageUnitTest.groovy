@@ -0,0 +1,98 @@
+/*
+ * This file is part of TechReborn, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2020 TechReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package techreborn.test.machine
+
+import net.fabricmc.fabric.api.transfer.v1.item.ItemStorage
+import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant
+import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction
+import net.minecraft.block.entity.BlockEntity
+import net.minecraft.item.Items
+import net.minecraft.test.GameTest
+import net.minecraft.util.math.BlockPos
+import net.minecraft.util.math.Direction
+import reborncore.common.blockentity.SlotConfiguration
+import techreborn.blockentity.storage.item.StorageUnitBaseBlockEntity
+import techreborn.init.TRContent
+import techreborn.test.TRGameTest
+import techreborn.test.TRTestContext
+
+class StorageUnitTest extends TRGameTest {
+	@GameTest(templateName = "fabric-gametest-api-v1:empty", tickLimit = 20)
+	def testStorageUnitTransferAndReload(TRTestContext context) {
+		/**
+		 * Test that more than a stack can be inserted and extracted through the sided item storage,
+		 * and that the stored amount survives saving and loading the unit
+		 */
+		def unitPos = new BlockPos(0, 1, 0)
+		context.setBlockState(unitPos, TRContent.StorageUnit.QUANTUM.block)
+
+		context.waitAndRun(5) {
+			def unit = context.getBlockEntity(unitPos) as StorageUnitBaseBlockEntity
+			def slotConfiguration = unit.slotConfiguration
+			slotConfiguration.getSlotDetails(StorageUnitBaseBlockEntity.INPUT_SLOT).updateSlotConfig(
+				new SlotConfiguration.SlotConfig(Direction.UP, new SlotConfiguration.SlotIO(SlotConfiguration.ExtractConfig.INPUT), StorageUnitBaseBlockEntity.INPUT_SLOT))
+			slotConfiguration.getSlotDetails(StorageUnitBaseBlockEntity.OUTPUT_SLOT).updateSlotConfig(
+				new SlotConfiguration.SlotConfig(Direction.UP, new SlotConfiguration.SlotIO(SlotConfiguration.ExtractConfig.OUTPUT), StorageUnitBaseBlockEntity.OUTPUT_SLOT))
+
+			def storage = ItemStorage.SIDED.find(context.world, context.getAbsolutePos(unitPos), Direction.UP)
+			def cobblestone = ItemVariant.of(Items.COBBLESTONE)
+
+			long inserted
+			try (Transaction transaction = Transaction.openOuter()) {
+				inserted = storage.insert(cobblestone, 200, transaction)
+				transaction.commit()
+			}
+			if (inserted != 200) {
+				context.throwGameTestException("Expected to insert 200 items but inserted $inserted")
+			}
+			expectStored(context, reload(context, unit), 200)
+
+			long extracted
+			try (Transaction transaction = Transaction.openOuter()) {
+				extracted = storage.extract(cobblestone, 150, transaction)
+				transaction.commit()
+			}
+			if (extracted != 150) {
+				context.throwGameTestException("Expected to extract 150 items but extracted $extracted")
+			}
+			expectStored(context, unit, 50)
+			expectStored(context, reload(context, unit), 50)
+
+			context.complete()
+		}
+	}
+
+	private static StorageUnitBaseBlockEntity reload(TRTestContext context, StorageUnitBaseBlockEntity unit) {
+		def registries = context.world.registryManager
+		def nbt = unit.createNbtWithIdentifyingData(registries)
+		return BlockEntity.createFromNbt(unit.pos, unit.cachedState, nbt, registries) as StorageUnitBaseBlockEntity
+	}
+
+	private static void expectStored(TRTestContext context, StorageUnitBaseBlockEntity unit, int amount) {
+		if (unit.currentCapacity != amount || unit.storedStack.item != Items.COBBLESTONE) {
+			context.throwGameTestException("Expected $amount cobblestone in the unit but found ${unit.currentCapacity} ${unit.storedStack.item}")
+		}
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ * This file is part of TechReborn, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2020 TechReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package techreborn.test.multiblock
+
+import net.minecraft.block.Blocks
+import net.minecraft.test.GameTest
+import net.minecraft.util.math.BlockPos
+import reborncore.common.multiblock.MultiblockBlockEntityBase
+import reborncore.common.multiblock.MultiblockControllerBase
+import techreborn.init.TRContent
+import techreborn.test.TRGameTest
+import techreborn.test.TRTestContext
+
+class MachineCasingTest extends TRGameTest {
+	@GameTest(templateName = "fabric-gametest-api-v1:empty", tickLimit = 60)
+	def testBreakingCasingSplitsMultiblock(TRTestContext context) {
+		/**
+		 * Test that breaking the middle of a row of five casings leaves two machines of two casings each
+		 */
+		(0..4).each {
+			context.setBlockState(new BlockPos(it, 1, 0), TRContent.MachineBlocks.BASIC.casing)
+		}
+
+		context.waitAndRun(10) {
+			def controller = controllerAt(context, 0)
+			if (controller == null || (1..4).any { controllerAt(context, it) != controller }) {
+				context.throwGameTestException("Casings did not join into one machine")
+			}
+
+			context.setBlockState(new BlockPos(2, 1, 0), Blocks.AIR)
+
+			context.addFinalTask {
+				def left = controllerAt(context, 0)
+				def right = controllerAt(context, 4)
+				if (left == null || right == null || left == right) {
+					context.throwGameTestException("Row was not split into two machines")
+				}
+				if (controllerAt(context, 1) != left || controllerAt(context, 3) != right) {
+					context.throwGameTestException("Casings ended up in the wrong machine")
+				}
+				if (left.numConnectedBlocks != 2 || right.numConnectedBlocks != 2) {
+					context.throwGameTestException("Expected two casings per machine, found ${left.numConnectedBlocks} and ${right.numConnectedBlocks}")
+				}
+			}
+		}
+	}
+
+	private static MultiblockControllerBase controllerAt(TRTestContext context, int x) {
+		def part = context.getBlockEntity(new BlockPos(x, 1, 0)) as MultiblockBlockEntityBase
+		return part?.multiblockController
+	}
+}
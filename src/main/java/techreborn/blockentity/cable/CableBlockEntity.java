@@ -34,6 +34,7 @@ import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtHelper;
+import net.minecraft.network.codec.PacketCodecs;
 import net.minecraft.network.packet.s2c.play.BlockEntityUpdateS2CPacket;
 import net.minecraft.registry.RegistryWrapper;
 import net.minecraft.server.world.ServerWorld;
@@ -45,8 +46,7 @@ import net.minecraft.world.World;
 import org.jetbrains.annotations.Nullable;
 import reborncore.api.IListInfoProvider;
 import reborncore.api.IToolDrop;
-import reborncore.common.network.NetworkManager;
-import reborncore.common.network.clientbound.CustomDescriptionPayload;
+import reborncore.common.blockentity.DescriptionSync;
 import reborncore.common.powerSystem.PowerSystem;
 import reborncore.common.util.StringUtils;
 import reborncore.common.util.WorldUtils;
@@ -58,9 +58,10 @@ import techreborn.init.TRContent;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 public class CableBlockEntity extends BlockEntity
-	implements BlockEntityTicker<CableBlockEntity>, IListInfoProvider, IToolDrop, RenderAttachmentBlockEntity {
+	implements BlockEntityTicker<CableBlockEntity>, IListInfoProvider, IToolDrop, RenderAttachmentBlockEntity, DescriptionSync.Provider {
 	// Can't use SimpleEnergyStorage because the cable type is not available when the BE is constructed.
 	final SimpleSidedEnergyContainer energyContainer = new SimpleSidedEnergyContainer() {
 		@Override
@@ -83,9 +84,15 @@ public class CableBlockEntity extends BlockEntity
 	private TRContent.Cables cableType = null;
 	@Nullable
 	private BlockState cover = null;
-	long lastTick = 0;
+	private final DescriptionSync descriptionSync = new DescriptionSync(this)
+		.field(PacketCodecs.optional(PacketCodecs.entryOf(Block.STATE_IDS)), () -> Optional.ofNullable(cover), state -> cover = state.orElse(null));
 	// null means that it needs to be re-queried
 	List<CableTarget> targets = null;
+	/**
+	 * Network this cable belongs to, shared with all connected cables. null or invalid means that it needs to be rebuilt.
+	 */
+	@Nullable
+	CableNetwork network = null;
 	/**
 	 * Adjacent caches, used to quickly query adjacent cable block entities.
 	 */
@@ -144,9 +151,12 @@ public class CableBlockEntity extends BlockEntity
 
 	public void setCover(BlockState cover) {
 		this.cover = cover;
-		if (world != null && !world.isClient) {
-			NetworkManager.sendToTracking(new CustomDescriptionPayload(getPos(), this.createNbt(world.getRegistryManager())), this);
-		}
+		descriptionSync.sendChanges();
+	}
+
+	@Override
+	public DescriptionSync getDescriptionSync() {
+		return descriptionSync;
 	}
 
 	public long getEnergy() {
@@ -169,10 +179,10 @@ public class CableBlockEntity extends BlockEntity
 		return getAdjacentCache(direction).getBlockEntity();
 	}
 
-	void appendTargets(List<OfferedEnergyStorage> targetStorages) {
+	List<CableTarget> getTargets() {
 		ServerWorld serverWorld = (ServerWorld) world;
 		if (serverWorld == null) {
-			return;
+			return List.of();
 		}
 
 		// Update our targets if necessary.
@@ -192,7 +202,7 @@ public class CableBlockEntity extends BlockEntity
 					}
 				} else if (adjCache.find(direction.getOpposite()) != null) {
 					foundSomething = true;
-					targets.add(new CableTarget(direction, adjCache));
+					targets.add(new CableTarget(this, direction, adjCache));
 				}
 
 				newBlockState = newBlockState.with(CableBlock.PROPERTY_MAP.get(direction), foundSomething);
@@ -201,21 +211,13 @@ public class CableBlockEntity extends BlockEntity
 			serverWorld.setBlockState(getPos(), newBlockState);
 		}
 
-		// Fill the list.
-		for (CableTarget target : targets) {
-			EnergyStorage storage = target.find();
+		return targets;
+	}
 
-			if (storage == null) {
-				// Schedule a rebuild next tick.
-				// This is just a reference change, the iterator remains valid.
-				targets = null;
-			} else {
-				targetStorages.add(new OfferedEnergyStorage(this, target.directionTo, storage));
-			}
+	private void invalidateNetwork() {
+		if (network != null) {
+			network.invalidate();
 		}
-
-		// Reset blocked sides.
-		blockedSides = 0;
 	}
 
 	// BlockEntity
@@ -253,8 +255,15 @@ public class CableBlockEntity extends BlockEntity
 		}
 	}
 
+	@Override
+	public void markRemoved() {
+		super.markRemoved();
+		invalidateNetwork();
+	}
+
 	public void neighborUpdate() {
 		targets = null;
+		invalidateNetwork();
 	}
 
 	// BlockEntityTicker
@@ -304,12 +313,4 @@ public class CableBlockEntity extends BlockEntity
 	public @Nullable BlockState getRenderAttachmentData() {
 		return cover;
 	}
-
-	private record CableTarget(Direction directionTo, BlockApiCache<EnergyStorage, Direction> cache) {
-
-		@Nullable
-		EnergyStorage find() {
-			return cache.find(directionTo.getOpposite());
-		}
-	}
 }
@@ -0,0 +1,104 @@
+/*
+ * This file is part of TechReborn, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2024 TechReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package techreborn.blockentity.cable;
+
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.Direction;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * A set of connected cables sharing the same transfer rate, together with the energy storages adjacent to them.
+ * <p>
+ * The network is built once with a BFS and then cached by all of its cables. It is thrown away and rebuilt
+ * when one of its cables is placed, removed or receives a neighbor update, so that ticking it only costs
+ * a pass over its flat cable and target lists.
+ */
+class CableNetwork {
+	final List<CableBlockEntity> cables = new ArrayList<>();
+	final List<CableTarget> targets = new ArrayList<>();
+	long lastTick = -1;
+	private boolean valid = true;
+
+	private CableNetwork() {
+	}
+
+	boolean isValid() {
+		return valid;
+	}
+
+	void invalidate() {
+		valid = false;
+	}
+
+	/**
+	 * Perform a BFS to gather all connected cables and their targets into a new network.
+	 * <p>
+	 * The new network inherits the latest tick stamp of the networks it replaces, so that a network
+	 * invalidated while it was ticking doesn't get ticked a second time in the same server tick.
+	 */
+	static CableNetwork build(CableBlockEntity start) {
+		CableNetwork network = new CableNetwork();
+		Deque<CableBlockEntity> bfsQueue = new ArrayDeque<>();
+
+		inheritTick(network, start);
+		start.network = network;
+		network.cables.add(start);
+		bfsQueue.add(start);
+
+		while (!bfsQueue.isEmpty()) {
+			CableBlockEntity current = bfsQueue.removeFirst();
+			network.targets.addAll(current.getTargets());
+
+			for (Direction direction : Direction.values()) {
+				if (current.getAdjacentBlockEntity(direction) instanceof CableBlockEntity adjCable && current.getCableType().transferRate == adjCable.getCableType().transferRate) {
+					if (adjCable.network != network && canJoin(adjCable)) {
+						inheritTick(network, adjCable);
+						adjCable.network = network;
+						network.cables.add(adjCable);
+						bfsQueue.add(adjCable);
+					}
+				}
+			}
+		}
+
+		return network;
+	}
+
+	private static void inheritTick(CableNetwork network, CableBlockEntity cable) {
+		if (cable.network != null) {
+			network.lastTick = Math.max(network.lastTick, cable.network.lastTick);
+		}
+	}
+
+	private static boolean canJoin(CableBlockEntity cable) {
+		// Make sure we ignore cables in non-ticking chunks.
+		return !cable.isRemoved() && cable.getWorld() instanceof ServerWorld sw && sw.isChunkLoaded(cable.getPos());
+	}
+}
@@ -1,7 +1,7 @@
 /*
  * This file is part of TechReborn, licensed under the MIT License (MIT).
  *
- * Copyright (c) 2020 TechReborn
+ * Copyright (c) 2024 TechReborn
  *
  * Permission is hereby granted, free of charge, to any person obtaining a copy
  * of this software and associated documentation files (the "Software"), to deal
@@ -22,17 +22,25 @@
  * SOFTWARE.
  */
 
+
 package techreborn.blockentity.cable;
 
+import net.fabricmc.fabric.api.lookup.v1.block.BlockApiCache;
 import net.minecraft.util.math.Direction;
+import org.jetbrains.annotations.Nullable;
 import team.reborn.energy.api.EnergyStorage;
 
 /**
- * {@link EnergyStorage} adjacent to an energy cable, with some additional info.
+ * Non-cable energy storage adjacent to a cable, as seen from that cable.
  */
-record OfferedEnergyStorage(CableBlockEntity sourceCable, Direction direction, EnergyStorage storage) {
+record CableTarget(CableBlockEntity sourceCable, Direction directionTo, BlockApiCache<EnergyStorage, Direction> cache) {
+	@Nullable
+	EnergyStorage find() {
+		return cache.find(directionTo.getOpposite());
+	}
+
 	void afterTransfer() {
 		// Block insertions from this side.
-		sourceCable.blockedSides |= 1 << direction.ordinal();
+		sourceCable.blockedSides |= 1 << directionTo.ordinal();
 	}
 }
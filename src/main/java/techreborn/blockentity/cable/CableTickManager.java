@@ -24,20 +24,29 @@
 
 package techreborn.blockentity.cable;
 
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.ints.IntComparator;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction;
 import net.minecraft.server.world.ServerWorld;
-import net.minecraft.util.math.Direction;
+import net.minecraft.util.math.random.Random;
 import team.reborn.energy.api.EnergyStorage;
+import techreborn.config.TechRebornConfig;
 import techreborn.init.TRContent;
 
-import java.util.*;
+import java.util.Arrays;
+import java.util.List;
 
 class CableTickManager {
-	private static final List<CableBlockEntity> cableList = new ArrayList<>();
-	private static final List<OfferedEnergyStorage> targetStorages = new ArrayList<>();
-	private static final Deque<CableBlockEntity> bfsQueue = new ArrayDeque<>();
+	// Reusable scratch buffers for the network currently being ticked, grown on demand.
+	private static CableTarget[] targets = new CableTarget[16];
+	private static EnergyStorage[] storages = new EnergyStorage[16];
+	private static long[] simulationResults = new long[16];
+	private static int[] order = new int[16];
+	private static int targetCount = 0;
+	private static final Random random = Random.create();
 	private static long tickCounter = 0;
+	private static final IntComparator BY_SIMULATION_RESULT = (a, b) -> Long.compare(simulationResults[a], simulationResults[b]);
 
 	static {
 		ServerTickEvents.START_SERVER_TICK.register(server -> tickCounter++);
@@ -46,10 +55,18 @@ class CableTickManager {
 	static void handleCableTick(CableBlockEntity startingCable) {
 		if (!(startingCable.getWorld() instanceof ServerWorld)) throw new IllegalStateException();
 
-		try {
-			gatherCables(startingCable);
-			if (cableList.isEmpty()) return;
+		CableNetwork network = startingCable.network;
+		if (network == null || !network.isValid()) {
+			network = CableNetwork.build(startingCable);
+		}
+
+		// Make sure we only tick each network once per tick.
+		if (network.lastTick == tickCounter) return;
+		network.lastTick = tickCounter;
 
+		List<CableBlockEntity> cableList = network.cables;
+
+		try {
 			// Group all energy into the network.
 			long networkCapacity = 0;
 			long networkAmount = 0;
@@ -58,14 +75,31 @@ class CableTickManager {
 				networkAmount += cable.energyContainer.amount;
 				networkCapacity += cable.energyContainer.getCapacity();
 
-				// Update cable connections.
-				cable.appendTargets(targetStorages);
 				// Block any cable I/O while we access the network amount directly.
 				// Some things might try to access cables, for example a p2p tunnel pointing back at a cable.
 				// If the cables and the network go out of sync, we risk duping or voiding energy.
 				cable.ioBlocked = true;
 			}
 
+			// Update cable connections.
+			ensureCapacity(network.targets.size());
+			for (CableTarget target : network.targets) {
+				EnergyStorage storage = target.find();
+
+				if (storage == null) {
+					// Schedule a rebuild next tick.
+					target.sourceCable().targets = null;
+					network.invalidate();
+				} else {
+					targets[targetCount] = target;
+					storages[targetCount] = storage;
+					targetCount++;
+				}
+
+				// Reset blocked sides.
+				target.sourceCable().blockedSides = 0;
+			}
+
 			// Just in case.
 			if (networkAmount > networkCapacity) {
 				networkAmount = networkCapacity;
@@ -79,79 +113,88 @@ class CableTickManager {
 			// Split energy evenly across cables.
 			int cableCount = cableList.size();
 			for (CableBlockEntity cable : cableList) {
-				cable.energyContainer.amount = networkAmount / cableCount;
-				networkAmount -= cable.energyContainer.amount;
+				long cableAmount = networkAmount / cableCount;
+				networkAmount -= cableAmount;
 				cableCount--;
-				cable.markDirty();
 				cable.ioBlocked = false;
+				// Only mark the cable dirty if its share actually changed.
+				if (cable.energyContainer.amount != cableAmount) {
+					cable.energyContainer.amount = cableAmount;
+					cable.markDirty();
+				}
 			}
 		} finally {
-			cableList.clear();
-			targetStorages.clear();
-			bfsQueue.clear();
+			// Don't keep block entities and storages alive through the scratch buffers.
+			Arrays.fill(targets, 0, targetCount, null);
+			Arrays.fill(storages, 0, targetCount, null);
+			targetCount = 0;
 		}
 	}
 
-	private static boolean shouldTickCable(CableBlockEntity current) {
-		// Make sure we only gather and tick each cable once per tick.
-		if (current.lastTick == tickCounter) return false;
-		// Make sure we ignore cables in non-ticking chunks.
-		return current.getWorld() instanceof ServerWorld sw && sw.isChunkLoaded(current.getPos());
+	private static void ensureCapacity(int size) {
+		if (targets.length < size) {
+			int newSize = Math.max(size, targets.length * 2);
+			targets = new CableTarget[newSize];
+			storages = new EnergyStorage[newSize];
+			simulationResults = new long[newSize];
+			order = new int[newSize];
+		}
 	}
 
 	/**
-	 * Perform a BFS to gather all connected ticking cables.
+	 * Perform a transfer operation across the gathered targets.
+	 * <p>
+	 * Targets are served from the lowest to the highest simulated transfer, so that the amount left over by
+	 * targets that can't take their full share is spread over the remaining ones. Ties are broken by either
+	 * a shuffle or, when {@link TechRebornConfig#rotateCableTargets} is enabled, a start index that moves
+	 * by one every tick.
 	 */
-	private static void gatherCables(CableBlockEntity start) {
-		if (!shouldTickCable(start)) return;
-
-		bfsQueue.add(start);
-		start.lastTick = tickCounter;
-		cableList.add(start);
-
-		while (!bfsQueue.isEmpty()) {
-			CableBlockEntity current = bfsQueue.removeFirst();
-
-			for (Direction direction : Direction.values()) {
-				if (current.getAdjacentBlockEntity(direction) instanceof CableBlockEntity adjCable && current.getCableType().transferRate == adjCable.getCableType().transferRate) {
-					if (shouldTickCable(adjCable)) {
-						bfsQueue.add(adjCable);
-						adjCable.lastTick = tickCounter;
-						cableList.add(adjCable);
-					}
-				}
+	private static long dispatchTransfer(TRContent.Cables cableType, TransferOperation operation, long maxAmount) {
+		final int count = targetCount;
+
+		// Order targets for better average transfer.
+		if (TechRebornConfig.rotateCableTargets && count > 0) {
+			int start = (int) (tickCounter % count);
+			for (int i = 0; i < count; ++i) {
+				order[i] = (start + i) % count;
+			}
+		} else {
+			for (int i = 0; i < count; ++i) {
+				order[i] = i;
+			}
+			for (int i = count - 1; i > 0; --i) {
+				int j = random.nextInt(i + 1);
+				int tmp = order[i];
+				order[i] = order[j];
+				order[j] = tmp;
 			}
 		}
-	}
 
-	/**
-	 * Perform a transfer operation across a list of targets.
-	 */
-	private static long dispatchTransfer(TRContent.Cables cableType, TransferOperation operation, long maxAmount) {
-		// Build target list.
-		List<SortableStorage> sortedTargets = new ArrayList<>();
-		for (var storage : targetStorages) {
-			sortedTargets.add(new SortableStorage(operation, storage));
+		// Simulate each target on its own.
+		for (int i = 0; i < count; ++i) {
+			try (Transaction tx = Transaction.openOuter()) {
+				simulationResults[i] = operation.transfer(storages[i], Long.MAX_VALUE, tx);
+			}
 		}
-		// Shuffle for better average transfer.
-		Collections.shuffle(sortedTargets);
+
 		// Sort by lowest simulation target.
-		sortedTargets.sort(Comparator.comparingLong(sortableStorage -> sortableStorage.simulationResult));
+		sortOrder(count);
+
 		// Actually perform the transfer.
 		try (Transaction transaction = Transaction.openOuter()) {
 			long transferredAmount = 0;
-			for (int i = 0; i < sortedTargets.size(); ++i) {
-				SortableStorage target = sortedTargets.get(i);
-				int remainingTargets = sortedTargets.size() - i;
+			for (int i = 0; i < count; ++i) {
+				int target = order[i];
+				int remainingTargets = count - i;
 				long remainingAmount = maxAmount - transferredAmount;
 				// Limit max amount to the cable transfer rate.
 				long targetMaxAmount = Math.min(remainingAmount / remainingTargets, cableType.transferRate);
 
-				long localTransferred = operation.transfer(target.storage.storage(), targetMaxAmount, transaction);
+				long localTransferred = operation.transfer(storages[target], targetMaxAmount, transaction);
 				if (localTransferred > 0) {
 					transferredAmount += localTransferred;
 					// Block duplicate operations.
-					target.storage.afterTransfer();
+					targets[target].afterTransfer();
 				}
 			}
 			transaction.commit();
@@ -159,19 +202,15 @@ class CableTickManager {
 		}
 	}
 
-	private interface TransferOperation {
-		long transfer(EnergyStorage storage, long maxAmount, Transaction transaction);
+	/**
+	 * Stable sort of {@link #order} by simulation result.
+	 * Stable so that the shuffled or rotated order is kept between equal targets.
+	 */
+	private static void sortOrder(int count) {
+		IntArrays.mergeSort(order, 0, count, BY_SIMULATION_RESULT);
 	}
 
-	private static class SortableStorage {
-		private final OfferedEnergyStorage storage;
-		private final long simulationResult;
-
-		SortableStorage(TransferOperation operation, OfferedEnergyStorage storage) {
-			this.storage = storage;
-			try (Transaction tx = Transaction.openOuter()) {
-				this.simulationResult = operation.transfer(storage.storage(), Long.MAX_VALUE, tx);
-			}
-		}
+	private interface TransferOperation {
+		long transfer(EnergyStorage storage, long maxAmount, Transaction transaction);
 	}
 }
@@ -0,0 +1,152 @@
+/*
+ * This file is part of TechReborn, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2024 TechReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package techreborn.blockentity.machine.multiblock;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import net.minecraft.block.Block;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
+import reborncore.common.util.BlockChangeTracker;
+import reborncore.common.util.Torus;
+import techreborn.init.TRContent;
+
+/**
+ * Keeps count of the coils missing from a fusion reactor's ring.
+ * <p>
+ * The coil positions are recorded once per reactor size. After that, only block changes inside the torus bounding box
+ * are looked at, so checking whether the ring is complete is constant-time on the server.
+ */
+class FusionCoilTracker implements BlockChangeTracker.Listener {
+	private final FusionControlComputerBlockEntity controller;
+	private final BlockPos.Mutable checkPos = new BlockPos.Mutable();
+
+	private int trackedSize = -1;
+	private long[] coils = new long[0];
+	private final Long2IntOpenHashMap coilIndex = new Long2IntOpenHashMap();
+	private boolean[] present = new boolean[0];
+	private int missingCoils;
+	@Nullable
+	private World watchedWorld;
+
+	FusionCoilTracker(FusionControlComputerBlockEntity controller) {
+		this.controller = controller;
+		coilIndex.defaultReturnValue(-1);
+	}
+
+	boolean isComplete() {
+		World world = controller.getWorld();
+		if (world == null) {
+			return false;
+		}
+		if (world.isClient) {
+			// No block change events on the client, check the whole ring
+			trackCoils();
+			return countMissing(world) == 0;
+		}
+		if (watchedWorld == null || trackedSize != controller.getSize()) {
+			trackCoils();
+			missingCoils = countMissing(world);
+			if (coils.length > 0) {
+				BlockChangeTracker.register(world, getBounds(), this);
+			}
+			watchedWorld = world;
+		}
+		return missingCoils == 0;
+	}
+
+	/**
+	 * Forgets the recorded ring and stops listening for block changes.
+	 */
+	void reset() {
+		if (watchedWorld != null) {
+			BlockChangeTracker.unregister(watchedWorld, this);
+			watchedWorld = null;
+		}
+		trackedSize = -1;
+	}
+
+	@Override
+	public void onBlockChanged(BlockPos pos) {
+		int index = coilIndex.get(pos.asLong());
+		if (index < 0 || watchedWorld == null) {
+			return;
+		}
+		boolean isCoil = isCoil(watchedWorld, pos);
+		if (isCoil != present[index]) {
+			present[index] = isCoil;
+			missingCoils += isCoil ? -1 : 1;
+		}
+	}
+
+	private void trackCoils() {
+		int size = controller.getSize();
+		if (trackedSize == size) {
+			return;
+		}
+		reset();
+		long[] offsets = Torus.getPackedOriginPositions(size);
+		BlockPos origin = controller.getPos();
+		coils = new long[offsets.length];
+		present = new boolean[offsets.length];
+		coilIndex.clear();
+		for (int i = 0; i < coils.length; i++) {
+			coils[i] = BlockPos.add(offsets[i], origin.getX(), origin.getY(), origin.getZ());
+			coilIndex.put(coils[i], i);
+		}
+		trackedSize = size;
+	}
+
+	private int countMissing(World world) {
+		int missing = 0;
+		for (int i = 0; i < coils.length; i++) {
+			present[i] = isCoil(world, checkPos.set(coils[i]));
+			if (!present[i]) {
+				missing++;
+			}
+		}
+		return missing;
+	}
+
+	private BlockBox getBounds() {
+		int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+		int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+		for (long coil : coils) {
+			minX = Math.min(minX, BlockPos.unpackLongX(coil));
+			minY = Math.min(minY, BlockPos.unpackLongY(coil));
+			minZ = Math.min(minZ, BlockPos.unpackLongZ(coil));
+			maxX = Math.max(maxX, BlockPos.unpackLongX(coil));
+			maxY = Math.max(maxY, BlockPos.unpackLongY(coil));
+			maxZ = Math.max(maxZ, BlockPos.unpackLongZ(coil));
+		}
+		return new BlockBox(minX, minY, minZ, maxX, maxY, maxZ);
+	}
+
+	private static boolean isCoil(World world, BlockPos pos) {
+		Block coil = TRContent.Machine.FUSION_COIL.block;
+		return world.getBlockState(pos) == coil.getDefaultState();
+	}
+}
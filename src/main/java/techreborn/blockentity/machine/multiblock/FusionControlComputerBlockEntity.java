@@ -70,6 +70,7 @@ public class FusionControlComputerBlockEntity extends GenericMachineBlockEntity
 	boolean hasStartedCrafting = false;
 	boolean checkNBTRecipe = false;
 	long lastTick = -1;
+	private final FusionCoilTracker coilTracker = new FusionCoilTracker(this);
 
 	public FusionControlComputerBlockEntity(BlockPos pos, BlockState state) {
 		super(TRBlockEntities.FUSION_CONTROL_COMPUTER, pos, state, "FusionControlComputer", -1, -1, TRContent.Machine.FUSION_CONTROL_COMPUTER.block, -1);
@@ -100,7 +101,7 @@ public class FusionControlComputerBlockEntity extends GenericMachineBlockEntity
 	 */
 	public void changeSize(int sizeDelta) {
 		int newSize = size + sizeDelta;
-		this.size = Math.max(6, Math.min(TechRebornConfig.fusionControlComputerMaxCoilSize, newSize));
+		setSize(Math.max(6, Math.min(TechRebornConfig.fusionControlComputerMaxCoilSize, newSize)));
 	}
 
 	/**
@@ -351,11 +352,12 @@ public class FusionControlComputerBlockEntity extends GenericMachineBlockEntity
 		if (tagCompound.contains("hasActiveRecipe") && tagCompound.getBoolean("hasActiveRecipe") && this.currentRecipeEntry == null) {
 			checkNBTRecipe = true;
 		}
+		int newSize = size;
 		if (tagCompound.contains("size")) {
-			this.size = tagCompound.getInt("size");
+			newSize = tagCompound.getInt("size");
 		}
 		//Done here to force the smaller size, will be useful if people lag out on a large one.
-		this.size = Math.min(size, TechRebornConfig.fusionControlComputerMaxCoilSize);
+		setSize(Math.min(newSize, TechRebornConfig.fusionControlComputerMaxCoilSize));
 	}
 
 	@Override
@@ -375,10 +377,23 @@ public class FusionControlComputerBlockEntity extends GenericMachineBlockEntity
 		return Math.max(Math.round(calc * 100D) / 100D, 1D);
 	}
 
+	@Override
+	public boolean isMultiblockValid() {
+		return coilTracker.isComplete();
+	}
+
+	@Override
+	public void invalidateMultiblock() {
+		super.invalidateMultiblock();
+		coilTracker.reset();
+	}
+
 	@Override
 	public void writeMultiblock(MultiblockWriter writer) {
 		BlockState coil = TRContent.Machine.FUSION_COIL.block.getDefaultState();
-		Torus.getOriginPositions(size).forEach(pos -> writer.add(pos.getX(), pos.getY(), pos.getZ(), coil));
+		for (long pos : Torus.getPackedOriginPositions(size)) {
+			writer.add(BlockPos.unpackLongX(pos), BlockPos.unpackLongY(pos), BlockPos.unpackLongZ(pos), coil);
+		}
 	}
 
 	@Override
@@ -413,7 +428,10 @@ public class FusionControlComputerBlockEntity extends GenericMachineBlockEntity
 	}
 
 	public void setSize(int size) {
-		this.size = size;
+		if (this.size != size) {
+			this.size = size;
+			invalidateMultiblock();
+		}
 	}
 
 	public int getState() {
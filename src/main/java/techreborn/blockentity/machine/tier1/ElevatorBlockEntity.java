@@ -46,10 +46,12 @@ import reborncore.common.powerSystem.PowerAcceptorBlockEntity;
 import reborncore.common.screen.BuiltScreenHandler;
 import reborncore.common.screen.BuiltScreenHandlerProvider;
 import reborncore.common.screen.builder.ScreenHandlerBuilder;
+import reborncore.common.util.PlayerIndex;
 import techreborn.config.TechRebornConfig;
 import techreborn.init.TRBlockEntities;
 import techreborn.init.TRContent;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -187,23 +189,22 @@ public class ElevatorBlockEntity extends PowerAcceptorBlockEntity implements ITo
 		}
 
 		// teleporting up must be done via mixin for now
-		Optional<BlockPos> downTarget = null;
-
-		List<PlayerEntity> players = world.getNonSpectatingEntities(PlayerEntity.class, new Box(0d,1d,0d,1d,2d,1d).offset(pos));
-		if (players.size() == 0) {
+		List<PlayerEntity> players = new ArrayList<>(1);
+		PlayerIndex.forEachPlayerIn(world, new Box(0d,1d,0d,1d,2d,1d).offset(pos), player -> {
+			if (!player.isSpectator() && player.isSneaking()) {
+				players.add(player);
+			}
+		});
+		if (players.isEmpty()) {
+			return;
+		}
+		Optional<BlockPos> downTarget = nextDownElevator();
+		if (downTarget.isEmpty()) {
 			return;
 		}
 		for (PlayerEntity player : players) {
-			if (player.isSneaking()) {
-				if (downTarget == null) {
-					downTarget = nextDownElevator();
-				}
-				if (downTarget.isEmpty()) {
-					continue;
-				}
-				if (teleport(player, downTarget.get().up())) {
-					player.setSneaking(false);
-				}
+			if (teleport(player, downTarget.get().up())) {
+				player.setSneaking(false);
 			}
 		}
 	}
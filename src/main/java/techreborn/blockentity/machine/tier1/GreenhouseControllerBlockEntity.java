@@ -59,11 +59,11 @@ public class GreenhouseControllerBlockEntity extends PowerAcceptorBlockEntity
 
 	private final RebornInventory<GreenhouseControllerBlockEntity> inventory = new RebornInventory<>(7, "GreenhouseControllerBlockEntity", 64, this);
 	private BlockPos multiblockCenter;
-	private int ticksToNextMultiblockCheck = 0;
 	private boolean growthBoost = false;
 	private int workingIndex = 0;
 	// number of blocks from center
 	private final int range = 4;
+	private final GreenhouseCropIndex cropIndex = new GreenhouseCropIndex(range);
 
 
 	public GreenhouseControllerBlockEntity(BlockPos pos, BlockState state) {
@@ -76,23 +76,15 @@ public class GreenhouseControllerBlockEntity extends PowerAcceptorBlockEntity
 		}
 
 		int size = range * 2 + 1;
-		int offsetX = workingIndex % size;
-		int offsetZ = workingIndex / size;
-		BlockPos corner = multiblockCenter.add(-range, 0, -range);
-		BlockPos blockPos = corner.add(offsetX, 0, offsetZ);
-
+		int column = workingIndex;
 		workingIndex = (workingIndex + 1) % (size * size);
-		BlockState blockState = world.getBlockState(blockPos);
-		Block block = blockState.getBlock();
 
-		if (growthBoost) {
-			if (block instanceof Fertilizable || block instanceof PlantBlock
-					|| block instanceof SugarCaneBlock	|| block instanceof CactusBlock
-			) {
-				if (getStored() > TechRebornConfig.greenhouseControllerEnergyPerBonemeal) {
-					useEnergy(TechRebornConfig.greenhouseControllerEnergyPerBonemeal);
-					blockState.randomTick((ServerWorld) world, blockPos, world.random);
-				}
+		// Growth boost still goes over the area one position per cycle, but only looks at plants
+		if (growthBoost && cropIndex.isGrowthTarget(column)) {
+			if (getStored() > TechRebornConfig.greenhouseControllerEnergyPerBonemeal) {
+				BlockPos blockPos = cropIndex.getPos(column);
+				useEnergy(TechRebornConfig.greenhouseControllerEnergyPerBonemeal);
+				world.getBlockState(blockPos).randomTick((ServerWorld) world, blockPos, world.random);
 			}
 		}
 
@@ -100,6 +92,19 @@ public class GreenhouseControllerBlockEntity extends PowerAcceptorBlockEntity
 			return;
 		}
 
+		int crop = cropIndex.pollWork();
+		if (crop < 0) {
+			return;
+		}
+		harvest(cropIndex.getPos(crop));
+		// Checked again on the next update, so it is queued again if it could not be harvested
+		cropIndex.markChanged(crop);
+	}
+
+	private void harvest(BlockPos blockPos) {
+		BlockState blockState = world.getBlockState(blockPos);
+		Block block = blockState.getBlock();
+
 		if (block instanceof CropBlock cropBlock) {
 			processAgedCrop(blockState, blockPos, cropBlock.getAgeProperty(), ((CropBlock) block).getMaxAge(), 0);
 		} else if (block instanceof NetherWartBlock) {
@@ -215,12 +220,11 @@ public class GreenhouseControllerBlockEntity extends PowerAcceptorBlockEntity
 			return;
 		}
 
-		if (--ticksToNextMultiblockCheck < 0) {
+		if (world.getTime() % 20 == 0) {
+			// Both are kept up to date by block change events, so this is cheap
 			growthBoost = isMultiblockValid();
-			ticksToNextMultiblockCheck = 200;
-		}
+			cropIndex.update(world, multiblockCenter);
 
-		if (world.getTime() % 20 == 0) {
 			double cyclesLimit = getSpeedMultiplier() * 4 + 1;
 			while (cyclesLimit-- > 0) {
 				workCycle();
@@ -249,6 +253,12 @@ public class GreenhouseControllerBlockEntity extends PowerAcceptorBlockEntity
 	}
 
 	// MachineBaseBlockEntity
+	@Override
+	public void invalidateMultiblock() {
+		super.invalidateMultiblock();
+		cropIndex.reset();
+	}
+
 	@Override
 	public void writeMultiblock(MultiblockWriter writer) {
 		BlockState lamp = TRContent.Machine.LAMP_INCANDESCENT.block.getDefaultState().with(Properties.FACING, Direction.DOWN);
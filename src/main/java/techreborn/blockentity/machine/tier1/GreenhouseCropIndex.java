@@ -0,0 +1,229 @@
+/*
+ * This file is part of TechReborn, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2024 TechReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package techreborn.blockentity.machine.tier1;
+
+import it.unimi.dsi.fastutil.ints.IntArrayFIFOQueue;
+import net.minecraft.block.BambooBlock;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.CactusBlock;
+import net.minecraft.block.CaveVines;
+import net.minecraft.block.CocoaBlock;
+import net.minecraft.block.CropBlock;
+import net.minecraft.block.Fertilizable;
+import net.minecraft.block.NetherWartBlock;
+import net.minecraft.block.PlantBlock;
+import net.minecraft.block.PumpkinBlock;
+import net.minecraft.block.SugarCaneBlock;
+import net.minecraft.block.SweetBerryBushBlock;
+import net.minecraft.state.property.Properties;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
+import reborncore.common.util.BlockChangeTracker;
+import techreborn.blocks.misc.BlockRubberLog;
+
+import java.util.BitSet;
+
+/**
+ * Keeps track of which columns of a greenhouse have work to do.
+ * <p>
+ * The area is scanned once, after that only columns with block changes inside the greenhouse bounds are looked at
+ * again. Columns are indexed like the controller's working index, {@code x + z * size} from the north west corner.
+ */
+class GreenhouseCropIndex implements BlockChangeTracker.Listener {
+	// Tall plants, rubber trees and cave vines are followed this far up from the crop layer
+	private static final int COLUMN_HEIGHT = 16;
+	private static final int RUBBER_TREE_HEIGHT = 10;
+
+	private final int range;
+	private final int size;
+	private final BlockPos.Mutable checkPos = new BlockPos.Mutable();
+
+	private final BitSet changedColumns = new BitSet();
+	private final BitSet growthTargets = new BitSet();
+	private final IntArrayFIFOQueue matureCrops = new IntArrayFIFOQueue();
+	private final BitSet queuedCrops = new BitSet();
+	private final IntArrayFIFOQueue sapLogs = new IntArrayFIFOQueue();
+	private final BitSet queuedSapLogs = new BitSet();
+
+	private BlockPos corner = BlockPos.ORIGIN;
+	@Nullable
+	private World watchedWorld;
+
+	GreenhouseCropIndex(int range) {
+		this.range = range;
+		this.size = range * 2 + 1;
+	}
+
+	/**
+	 * Scans the whole area the first time, and after that only the columns that changed since the last update.
+	 *
+	 * @param world  {@link World} World the greenhouse is in
+	 * @param center {@link BlockPos} Center of the crop layer
+	 */
+	void update(World world, BlockPos center) {
+		BlockPos newCorner = center.add(-range, 0, -range);
+		if (watchedWorld != world || !corner.equals(newCorner)) {
+			reset();
+			corner = newCorner;
+			changedColumns.set(0, size * size);
+			BlockChangeTracker.register(world, getBounds(), this);
+			watchedWorld = world;
+		}
+
+		for (int column = changedColumns.nextSetBit(0); column >= 0; column = changedColumns.nextSetBit(column + 1)) {
+			checkColumn(world, column);
+		}
+		changedColumns.clear();
+	}
+
+	/**
+	 * Forgets everything and stops listening for block changes.
+	 */
+	void reset() {
+		if (watchedWorld != null) {
+			BlockChangeTracker.unregister(watchedWorld, this);
+			watchedWorld = null;
+		}
+		changedColumns.clear();
+		growthTargets.clear();
+		matureCrops.clear();
+		queuedCrops.clear();
+		sapLogs.clear();
+		queuedSapLogs.clear();
+	}
+
+	boolean isGrowthTarget(int column) {
+		return growthTargets.get(column);
+	}
+
+	/**
+	 * @return {@code int} Next column with a crop to harvest, or rubber log with sap, {@code -1} if there is none
+	 */
+	int pollWork() {
+		if (!matureCrops.isEmpty()) {
+			int column = matureCrops.dequeueInt();
+			queuedCrops.clear(column);
+			return column;
+		}
+		if (!sapLogs.isEmpty()) {
+			int column = sapLogs.dequeueInt();
+			queuedSapLogs.clear(column);
+			return column;
+		}
+		return -1;
+	}
+
+	/**
+	 * Checks the column again on the next update, used after working on it.
+	 */
+	void markChanged(int column) {
+		changedColumns.set(column);
+	}
+
+	BlockPos getPos(int column) {
+		return corner.add(column % size, 0, column / size);
+	}
+
+	@Override
+	public void onBlockChanged(BlockPos pos) {
+		int x = pos.getX() - corner.getX();
+		int y = pos.getY() - corner.getY();
+		int z = pos.getZ() - corner.getZ();
+		if (x < 0 || x >= size || z < 0 || z >= size || y < 0 || y >= COLUMN_HEIGHT) {
+			return;
+		}
+		changedColumns.set(x + z * size);
+	}
+
+	private void checkColumn(World world, int column) {
+		BlockPos pos = getPos(column);
+		BlockState state = world.getBlockState(pos);
+		Block block = state.getBlock();
+
+		growthTargets.set(column, block instanceof Fertilizable || block instanceof PlantBlock
+				|| block instanceof SugarCaneBlock || block instanceof CactusBlock);
+
+		if (block instanceof BlockRubberLog) {
+			if (hasSap(world, pos, block) && !queuedSapLogs.get(column)) {
+				queuedSapLogs.set(column);
+				sapLogs.enqueue(column);
+			}
+		} else if (isMature(world, pos, state) && !queuedCrops.get(column)) {
+			queuedCrops.set(column);
+			matureCrops.enqueue(column);
+		}
+	}
+
+	private boolean isMature(World world, BlockPos pos, BlockState state) {
+		Block block = state.getBlock();
+		if (block instanceof CropBlock cropBlock) {
+			return cropBlock.isMature(state);
+		} else if (block instanceof NetherWartBlock) {
+			return state.get(NetherWartBlock.AGE) >= 3;
+		} else if (block instanceof SweetBerryBushBlock) {
+			return state.get(SweetBerryBushBlock.AGE) >= 3;
+		} else if (block instanceof CocoaBlock) {
+			return state.get(CocoaBlock.AGE) >= 2;
+		} else if (block instanceof PumpkinBlock) {
+			return true;
+		} else if (block instanceof SugarCaneBlock || block instanceof CactusBlock || block instanceof BambooBlock) {
+			// Harvested down to the bottom block
+			return world.getBlockState(checkPos.set(pos, 0, 1, 0)).getBlock() == block;
+		} else if (block instanceof CaveVines) {
+			for (int y = 0; y < COLUMN_HEIGHT; y++) {
+				BlockState vineState = world.getBlockState(checkPos.set(pos, 0, y, 0));
+				if (!(vineState.getBlock() instanceof CaveVines)) {
+					break;
+				}
+				if (vineState.get(Properties.BERRIES)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private boolean hasSap(World world, BlockPos pos, Block block) {
+		for (int y = 0; y < RUBBER_TREE_HEIGHT; y++) {
+			BlockState logState = world.getBlockState(checkPos.set(pos, 0, y, 0));
+			if (logState.getBlock() != block) {
+				break;
+			}
+			if (logState.get(BlockRubberLog.HAS_SAP)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private BlockBox getBounds() {
+		return new BlockBox(corner.getX(), corner.getY(), corner.getZ(),
+				corner.getX() + size - 1, corner.getY() + COLUMN_HEIGHT - 1, corner.getZ() + size - 1);
+	}
+}
@@ -32,7 +32,7 @@ import net.minecraft.network.codec.PacketCodecs;
 import net.minecraft.registry.RegistryWrapper;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
-import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
 import org.jetbrains.annotations.Nullable;
 import reborncore.api.IToolDrop;
@@ -41,6 +41,7 @@ import reborncore.common.powerSystem.PowerAcceptorBlockEntity;
 import reborncore.common.screen.BuiltScreenHandler;
 import reborncore.common.screen.BuiltScreenHandlerProvider;
 import reborncore.common.screen.builder.ScreenHandlerBuilder;
+import reborncore.common.util.PlayerIndex;
 import reborncore.common.util.WorldUtils;
 import techreborn.blocks.machine.tier1.PlayerDetectorBlock;
 import techreborn.blocks.machine.tier1.PlayerDetectorBlock.PlayerDetectorType;
@@ -48,10 +49,13 @@ import techreborn.config.TechRebornConfig;
 import techreborn.init.TRBlockEntities;
 import techreborn.init.TRContent;
 
+import java.util.UUID;
+
 public class PlayerDetectorBlockEntity extends PowerAcceptorBlockEntity implements IToolDrop, BuiltScreenHandlerProvider {
 
 
-	public String ownerUdid = "";
+	@Nullable
+	private UUID owner;
 	boolean redstone = false;
 	int radius = 16;
 
@@ -59,6 +63,10 @@ public class PlayerDetectorBlockEntity extends PowerAcceptorBlockEntity implemen
 		super(TRBlockEntities.PLAYER_DETECTOR, pos, state);
 	}
 
+	public void setOwner(@Nullable UUID owner) {
+		this.owner = owner;
+	}
+
 	public boolean isProvidingPower() {
 		return redstone;
 	}
@@ -90,25 +98,19 @@ public class PlayerDetectorBlockEntity extends PowerAcceptorBlockEntity implemen
 		boolean lastRedstone = redstone;
 		redstone = false;
 		if (getStored() > TechRebornConfig.playerDetectorEuPerTick) {
-			for (PlayerEntity player : world.getPlayers()) {
-				if (player.isSpectator()){
-					continue;
+			PlayerDetectorType type = state.get(PlayerDetectorBlock.TYPE);
+			redstone = PlayerIndex.anyPlayerNear(world, Vec3d.of(pos), radius, player -> {
+				if (player.isSpectator()) {
+					return false;
 				}
-				if (MathHelper.sqrt((float)player.squaredDistanceTo(pos.getX(), pos.getY(), pos.getZ())) <= (float)radius ) {
-					PlayerDetectorType type = world.getBlockState(pos).get(PlayerDetectorBlock.TYPE);
-					if (type == PlayerDetectorType.ALL) {// ALL
-						redstone = true;
-					} else if (type == PlayerDetectorType.OTHERS) {// Others
-						if (!ownerUdid.isEmpty() && !ownerUdid.equals(player.getUuid().toString())) {
-							redstone = true;
-						}
-					} else {// You
-						if (!ownerUdid.isEmpty() && ownerUdid.equals(player.getUuid().toString())) {
-							redstone = true;
-						}
-					}
+				if (type == PlayerDetectorType.ALL) {// ALL
+					return true;
+				} else if (type == PlayerDetectorType.OTHERS) {// Others
+					return owner != null && !owner.equals(player.getUuid());
+				} else {// You
+					return owner != null && owner.equals(player.getUuid());
 				}
-			}
+			});
 			useEnergy(TechRebornConfig.playerDetectorEuPerTick);
 		}
 		if (lastRedstone != redstone) {
@@ -140,17 +142,29 @@ public class PlayerDetectorBlockEntity extends PowerAcceptorBlockEntity implemen
 	@Override
 	public void readNbt(NbtCompound tag, RegistryWrapper.WrapperLookup registryLookup) {
 		super.readNbt(tag, registryLookup);
-		ownerUdid = tag.getString("ownerID");
+		owner = parseOwner(tag.getString("ownerID"));
 		radius = tag.getInt("radius");
 	}
 
 	@Override
 	public void writeNbt(NbtCompound tag, RegistryWrapper.WrapperLookup registryLookup) {
 		super.writeNbt(tag, registryLookup);
-		tag.putString("ownerID", ownerUdid);
+		tag.putString("ownerID", owner != null ? owner.toString() : "");
 		tag.putInt("radius", radius);
 	}
 
+	@Nullable
+	private static UUID parseOwner(String ownerId) {
+		if (ownerId.isEmpty()) {
+			return null;
+		}
+		try {
+			return UUID.fromString(ownerId);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
 	// MachineBaseBlockEntity
 	@Override
 	public boolean hasSlotConfig() {
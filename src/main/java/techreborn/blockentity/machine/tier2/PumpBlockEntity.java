@@ -24,6 +24,8 @@
 
 package techreborn.blockentity.machine.tier2;
 
+import it.unimi.dsi.fastutil.longs.Long2BooleanMap;
+import it.unimi.dsi.fastutil.longs.Long2BooleanOpenHashMap;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
@@ -43,7 +45,10 @@ import net.minecraft.sound.SoundEvents;
 import net.minecraft.util.ItemScatterer;
 import net.minecraft.util.collection.DefaultedList;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
 import net.minecraft.world.World;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.WorldChunk;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import reborncore.common.blockentity.MachineBaseBlockEntity;
@@ -60,8 +65,8 @@ import techreborn.config.TechRebornConfig;
 import techreborn.init.TRBlockEntities;
 import techreborn.init.TRContent;
 
-import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.Comparator;
 
 /**
  * @author maxvar (coding), ashendi (textures)
@@ -75,7 +80,12 @@ public class PumpBlockEntity extends GenericMachineBlockEntity implements BuiltS
 	public static final int MIN_DEPTH = 1;
 	public static final int MAX_RANGE = 50;
 	public static final int MAX_DEPTH = 50;
-	private Iterator<BlockPos> finder;
+	private BlockScanner finder;
+	private int finderCursor;
+	// Whether the current pass went past positions in unloaded chunks
+	private boolean finderSkippedUnloaded;
+	private final Long2BooleanMap sectionsWithFluid = new Long2BooleanOpenHashMap();
+	private int sectionsLayerY = Integer.MIN_VALUE;
 	@Nullable
 	private Tank tank;
 	private boolean exhausted;
@@ -128,13 +138,17 @@ public class PumpBlockEntity extends GenericMachineBlockEntity implements BuiltS
 
 	private void reset() {
 		finder = null;
+		finderCursor = 0;
+		finderSkippedUnloaded = false;
+		sectionsWithFluid.clear();
+		sectionsLayerY = Integer.MIN_VALUE;
 		exhausted = false;
 		pumpedTargetBlockPos = null;
 		world.setBlockState(pos, world.getBlockState(pos).with(BlockMachineBase.ACTIVE, false));
 	}
 
 	private void setupFinder() {
-		this.finder = new BlockPosIterable(pos, range, depth).iterator();
+		this.finder = new BlockScanner(pos, range, depth, finderCursor);
 	}
 
 	@Override
@@ -162,6 +176,8 @@ public class PumpBlockEntity extends GenericMachineBlockEntity implements BuiltS
 		getTank().read(tagCompound, registryLookup);
 		this.range = tagCompound.getInt("range");
 		this.depth = tagCompound.getInt("depth");
+		this.finderCursor = tagCompound.getInt("finderCursor");
+		this.finderSkippedUnloaded = tagCompound.getBoolean("finderSkippedUnloaded");
 		finder = null;
 	}
 
@@ -171,6 +187,8 @@ public class PumpBlockEntity extends GenericMachineBlockEntity implements BuiltS
 		getTank().write(tagCompound, registryLookup);
 		tagCompound.putInt("range", range);
 		tagCompound.putInt("depth", depth);
+		tagCompound.putInt("finderCursor", finder != null ? finder.getCursor() : finderCursor);
+		tagCompound.putBoolean("finderSkippedUnloaded", finderSkippedUnloaded);
 	}
 
 	@Override
@@ -253,8 +271,10 @@ public class PumpBlockEntity extends GenericMachineBlockEntity implements BuiltS
 				pumpedTargetBlockPos = null;
 			}
 		} else if (!getTank().isFull()) {
-			//find next target
-			findNextToPump(world);
+			//find next target, the search may take several ticks
+			if (!findNextToPump(world)) {
+				return;
+			}
 			if (pumpedTargetBlockPos != null) {
 				timeToPump = world.getTime() + (long) (TechRebornConfig.pumpTicksToComplete * (1 - getSpeedMultiplier()));
 			} else {
@@ -266,22 +286,76 @@ public class PumpBlockEntity extends GenericMachineBlockEntity implements BuiltS
 
 	}
 
-	private void findNextToPump(World world) {
+	/**
+	 * Reads up to {@link TechRebornConfig#pumpBlocksPerTick} blocks looking for a source block to pump, continuing
+	 * where the previous call stopped. Positions in sections without fluid are passed over without counting
+	 * towards that limit. A pass that went past unloaded chunks starts over instead of ending the search.
+	 *
+	 * @param world {@link World} World to search in
+	 * @return {@code boolean} {@code true} if a target was found or the search area is exhausted
+	 */
+	private boolean findNextToPump(World world) {
 		if (finder == null) {
 			setupFinder();
 		}
+		BlockPos.Mutable blockPos = new BlockPos.Mutable();
+		int budget = Math.max(1, TechRebornConfig.pumpBlocksPerTick);
 		while (finder.hasNext()) {
-			BlockPos blockPos = finder.next();
+			blockPos.set(finder.next());
 
+			if (!mayContainFluid(world, blockPos)) {
+				continue;
+			}
 			BlockState blockState = world.getBlockState(blockPos);
 			Fluid fluid = getFluid(blockState);
 			if (fluid != Fluids.EMPTY && (fluid == getTank().getFluid() || getTank().getFluid() == Fluids.EMPTY)) {
 				//if any found - start pumping
 				world.setBlockState(pos, world.getBlockState(pos).with(BlockMachineBase.ACTIVE, true));
-				pumpedTargetBlockPos = blockPos;
-				return;
+				pumpedTargetBlockPos = blockPos.toImmutable();
+				return true;
+			}
+			if (--budget <= 0) {
+				return false;
 			}
 		}
+		if (finderSkippedUnloaded) {
+			// The skipped chunks may hold fluid once they are loaded again
+			finder = null;
+			finderCursor = 0;
+			finderSkippedUnloaded = false;
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Whether the chunk section containing the position is loaded and holds any fluid. Results are only kept
+	 * for the layer being scanned, so fluid that flows in later is still found by the next layer. Unloaded
+	 * chunks are skipped without being cached, and make the current pass start over once it ends.
+	 */
+	private boolean mayContainFluid(World world, BlockPos blockPos) {
+		if (blockPos.getY() != sectionsLayerY) {
+			sectionsWithFluid.clear();
+			sectionsLayerY = blockPos.getY();
+		}
+		long sectionPos = ChunkSectionPos.toLong(blockPos);
+		if (sectionsWithFluid.containsKey(sectionPos)) {
+			return sectionsWithFluid.get(sectionPos);
+		}
+
+		WorldChunk chunk = world.getChunkManager().getWorldChunk(ChunkSectionPos.getSectionCoord(blockPos.getX()), ChunkSectionPos.getSectionCoord(blockPos.getZ()));
+		if (chunk == null) {
+			finderSkippedUnloaded = true;
+			return false;
+		}
+		boolean hasFluid = false;
+		int sectionIndex = chunk.getSectionIndex(blockPos.getY());
+		if (sectionIndex >= 0 && sectionIndex < chunk.getSectionArray().length) {
+			ChunkSection section = chunk.getSection(sectionIndex);
+			hasFluid = !section.isEmpty() && section.getBlockStateContainer().hasAny(state -> !state.getFluidState().isEmpty());
+		}
+		sectionsWithFluid.put(sectionPos, hasFluid);
+		return hasFluid;
 	}
 
 	@NotNull
@@ -313,58 +387,54 @@ public class PumpBlockEntity extends GenericMachineBlockEntity implements BuiltS
 		setRange(range + buttonAmount);
 	}
 
-	static class BlockPosIterable implements Iterable<BlockPos> {
-		int index;
-		final int layerSize;
-		final int m;
-		final ArrayList<MeasuredPos> layer;
-
-		public BlockPosIterable(BlockPos centerTop, int range, int depth) {
-			this.index = 0;
-			this.layerSize = (range * 2 + 1) * (range * 2 + 1);
-			this.m = layerSize * depth;
-			layer = new ArrayList<>(layerSize);
-			for (int i = centerTop.getX() - range; i <= centerTop.getX() + range; i++)
-				for (int j = centerTop.getZ() - range; j <= centerTop.getZ() + range; j++)
-					layer.add(new MeasuredPos(i, centerTop.getY(), j, centerTop.getSquaredDistance(i, centerTop.getY(), j)));
-			layer.sort((o1, o2) -> (int) (o1.weight - o2.weight));
+	/**
+	 * Walks the blocks below the pump layer by layer, each layer ordered by distance to the pump. Positions are
+	 * produced as packed longs from a single cursor, so the search can be resumed after a reload.
+	 */
+	static class BlockScanner {
+		private final long[] layer;
+		private final int total;
+		private int cursor;
+
+		public BlockScanner(BlockPos centerTop, int range, int depth, int cursor) {
+			this.layer = getLayer(centerTop, range);
+			this.total = layer.length * depth;
+			// A finished search starts over, so fluid that flowed back in is found again after a reload
+			this.cursor = cursor < total ? Math.max(cursor, 0) : 0;
 		}
 
-		/**
-		 * Returns an iterator over elements of type {@code T}.
-		 *
-		 * @return an Iterator.
-		 */
-		@NotNull
-		@Override
-		public Iterator<BlockPos> iterator() {
-			return new Iterator<>() {
-				@Override
-				public boolean hasNext() {
-					return index < m;
-				}
+		private static long[] getLayer(BlockPos centerTop, int range) {
+			int width = range * 2 + 1;
+			Integer[] order = new Integer[width * width];
+			for (int i = 0; i < order.length; i++) {
+				order[i] = i;
+			}
+			// Stable, so equally distant columns stay in x then z order
+			Arrays.sort(order, Comparator.comparingInt(i -> {
+				int dx = i / width - range;
+				int dz = i % width - range;
+				return dx * dx + dz * dz;
+			}));
+
+			long[] layer = new long[order.length];
+			for (int i = 0; i < order.length; i++) {
+				layer[i] = BlockPos.asLong(centerTop.getX() + order[i] / width - range, centerTop.getY(), centerTop.getZ() + order[i] % width - range);
+			}
+			return layer;
+		}
 
-				@Override
-				public BlockPos next() {
-					final BlockPos pos;
-					if (TechRebornConfig.pumpIterateOutwards) {
-						pos = layer.get(index % layerSize).down(1 + index / layerSize);
-					} else {
-						pos = layer.get((m - index - 1) % layerSize).down(1 + (m - index - 1) / layerSize);
-					}
-					index++;
-					return pos;
-				}
-			};
+		public boolean hasNext() {
+			return cursor < total;
 		}
 
-		static class MeasuredPos extends BlockPos {
-			private final double weight;
+		public long next() {
+			int index = TechRebornConfig.pumpIterateOutwards ? cursor : total - cursor - 1;
+			cursor++;
+			return BlockPos.add(layer[index % layer.length], 0, -(1 + index / layer.length), 0);
+		}
 
-			public MeasuredPos(int x, int y, int z, double weight) {
-				super(x, y, z);
-				this.weight = weight;
-			}
+		public int getCursor() {
+			return cursor;
 		}
 	}
 }
@@ -43,6 +43,7 @@ import org.jetbrains.annotations.Nullable;
 import reborncore.api.IListInfoProvider;
 import reborncore.api.IToolDrop;
 import reborncore.api.blockentity.InventoryProvider;
+import reborncore.common.blockentity.DescriptionSync;
 import reborncore.common.blockentity.MachineBaseBlockEntity;
 import reborncore.common.fluid.FluidUtils;
 import reborncore.common.fluid.FluidValue;
@@ -125,6 +126,11 @@ public class TankUnitBaseBlockEntity extends MachineBaseBlockEntity implements I
 		}
 	}
 
+	@Override
+	protected void addDescriptionFields(DescriptionSync sync) {
+		sync.field(FluidInstance.PACKET_CODEC, () -> tank.getFluidInstance(), fluid -> tank.setFluidInstance(fluid));
+	}
+
 	@Override
 	public boolean canBeUpgraded() {
 		return false;
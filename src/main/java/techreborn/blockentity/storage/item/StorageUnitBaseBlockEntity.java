@@ -26,10 +26,10 @@ package techreborn.blockentity.storage.item;
 
 import net.fabricmc.fabric.api.transfer.v1.item.InventoryStorage;
 import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
-import net.fabricmc.fabric.api.transfer.v1.item.base.SingleStackStorage;
-import net.fabricmc.fabric.api.transfer.v1.storage.SlottedStorage;
-import net.fabricmc.fabric.api.transfer.v1.storage.Storage;
-import net.fabricmc.fabric.api.transfer.v1.storage.base.CombinedSlottedStorage;
+import net.fabricmc.fabric.api.transfer.v1.storage.StoragePreconditions;
+import net.fabricmc.fabric.api.transfer.v1.storage.base.SingleSlotStorage;
+import net.fabricmc.fabric.api.transfer.v1.storage.base.SingleVariantStorage;
+import net.fabricmc.fabric.api.transfer.v1.transaction.TransactionContext;
 import net.minecraft.block.BlockState;
 import net.minecraft.component.DataComponentTypes;
 import net.minecraft.component.type.NbtComponent;
@@ -50,7 +50,9 @@ import org.jetbrains.annotations.Nullable;
 import reborncore.api.IListInfoProvider;
 import reborncore.api.IToolDrop;
 import reborncore.api.blockentity.InventoryProvider;
+import reborncore.common.blockentity.DescriptionSync;
 import reborncore.common.blockentity.MachineBaseBlockEntity;
+import reborncore.common.blockentity.SlotConfiguration;
 import reborncore.common.screen.BuiltScreenHandler;
 import reborncore.common.screen.BuiltScreenHandlerProvider;
 import reborncore.common.screen.builder.ScreenHandlerBuilder;
@@ -75,9 +77,13 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 	private int maxCapacity;
 	private int serverCapacity = -1;
 
-	private ItemStack storeItemStack;
-	// Fabric transfer API support for the internal stack (one per direction);
-	private final SingleStackStorage[] internalStoreStorage = new SingleStackStorage[6];
+	// Everything stored besides the output slot
+	private final StoredItems storedItems = new StoredItems();
+	private boolean storedItemsChanged = false;
+	// Reused by getStoredStack, rebuilt when the stored variant changes
+	private ItemStack storedStackView = ItemStack.EMPTY;
+	// Fabric transfer API support for the whole unit (one per direction)
+	private final SideStorage[] sideStorages = new SideStorage[6];
 
 	private TRContent.StorageUnit type;
 
@@ -85,6 +91,9 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 	// the locked-in item, even if the stored amount drops to zero.
 	private ItemStack lockedItemStack = ItemStack.EMPTY;
 
+	// Client only, what the renderer and GUI show. Synced on its own, as the client output slot is not kept up to date.
+	private ItemStack clientDisplayedStack = ItemStack.EMPTY;
+
 	public StorageUnitBaseBlockEntity(BlockPos pos, BlockState state) {
 		super(TRBlockEntities.STORAGE_UNIT, pos, state);
 		inventory = new RebornInventory<>(2, "ItemInventory", 64, this);
@@ -100,7 +109,7 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 		if(serverCapacity == -1){
 			this.maxCapacity = type.capacity;
 		}
-		storeItemStack = ItemStack.EMPTY;
+		setStored(ItemVariant.blank(), 0);
 		this.type = type;
 	}
 
@@ -131,45 +140,46 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 	}
 
 	private void populateOutput() {
-		// Set to storeItemStack to get the stack type
-		ItemStack output = storeItemStack.copy();
-
 		int outputSlotCount = inventory.getStack(OUTPUT_SLOT).getCount();
 
-		// Set to current outputSlot count
-		output.setCount(outputSlotCount);
-
 		// Calculate amount needed to fill stack in output slot
-		int amountToFill = getStoredStack().getMaxCount() - outputSlotCount;
+		int amountToFill = (int) Math.min(getStoredStack().getMaxCount() - outputSlotCount, storedItems.amount);
 
-		if (storeItemStack.getCount() >= amountToFill) {
-			storeItemStack.decrement(amountToFill);
+		ItemStack output = storedItems.variant.toStack(outputSlotCount + amountToFill);
+		setStored(storedItems.variant, storedItems.amount - amountToFill);
 
-			if (storeItemStack.isEmpty()) {
-				storeItemStack = ItemStack.EMPTY;
-			}
+		inventory.setStack(OUTPUT_SLOT, output);
+	}
 
-			output.increment(amountToFill);
+	private void addStored(ItemVariant variant, long amount) {
+		if (storedItems.isResourceBlank()) {
+			setStored(variant, amount);
 		} else {
-			output.increment(storeItemStack.getCount());
-			storeItemStack = ItemStack.EMPTY;
+			setStored(storedItems.variant, storedItems.amount + amount);
 		}
-
-		inventory.setStack(OUTPUT_SLOT, output);
+		storedItemsChanged = true;
 	}
 
-	private void addStoredItemCount(int amount) {
-		storeItemStack.increment(amount);
+	private void setStored(ItemVariant variant, long amount) {
+		storedItems.variant = amount > 0 ? variant : ItemVariant.blank();
+		storedItems.amount = Math.max(amount, 0);
 	}
 
 	public ItemStack getStoredStack() {
-		return storeItemStack.isEmpty() ? inventory.getStack(OUTPUT_SLOT) : storeItemStack;
+		if (storedItems.isResourceBlank()) {
+			return inventory.getStack(OUTPUT_SLOT);
+		}
+		if (!storedItems.variant.matches(storedStackView)) {
+			storedStackView = storedItems.variant.toStack();
+		}
+		storedStackView.setCount((int) Math.min(storedItems.amount, Integer.MAX_VALUE));
+		return storedStackView;
 	}
 
 	// Returns the ItemStack to be displayed to the player via UI / model
 	public ItemStack getDisplayedStack() {
 		if (!isLocked()) {
-			return getStoredStack();
+			return world != null && world.isClient ? clientDisplayedStack : getStoredStack();
 		} else {
 			// Render the locked stack even if the unit is empty
 			return lockedItemStack;
@@ -194,51 +204,35 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 
 		// Amount of items that can be added before reaching capacity
 		int reminder = maxCapacity - getCurrentCapacity();
-		DefaultedList<ItemStack> optionalShulkerStack = ItemUtils.getBlockEntityStacks(inputStack);
-		if (isLocked() && ItemUtils.canExtractFromCachedShulker(optionalShulkerStack, lockedItemStack) > 0 ) {
-			Pair<Integer, ItemStack> pair = ItemUtils.extractFromShulker(inputStack, optionalShulkerStack, lockedItemStack, reminder);
-			if (pair.getLeft() != 0) {
-				int amount = pair.getLeft();
-				if (storeItemStack.isEmpty()) {
-					storeItemStack = lockedItemStack.copy();
-					amount = amount -1;
+		// Only unpack shulker boxes and the like when there is something inside
+		if (isLocked() && inputStack.contains(DataComponentTypes.CONTAINER)) {
+			DefaultedList<ItemStack> optionalShulkerStack = ItemUtils.getBlockEntityStacks(inputStack);
+			if (ItemUtils.canExtractFromCachedShulker(optionalShulkerStack, lockedItemStack) > 0) {
+				Pair<Integer, ItemStack> pair = ItemUtils.extractFromShulker(inputStack, optionalShulkerStack, lockedItemStack, reminder);
+				if (pair.getLeft() != 0) {
+					addStored(ItemVariant.of(lockedItemStack), pair.getLeft());
+					inputStack = pair.getRight().copy();
 				}
-				addStoredItemCount(amount);
-				inputStack = pair.getRight().copy();
-				inventory.setHashChanged();
+				return inputStack;
 			}
-			return inputStack;
 		}
 		if (inputStack.getCount() <= reminder) {
 			// Add full stack
-			if (storeItemStack == ItemStack.EMPTY){
-				// copy input stack into stored if everything is in OUTPUT_SLOT
-				storeItemStack = inputStack.copy();
-			}
-			else {
-				addStoredItemCount(inputStack.getCount());
-			}
-
+			addStored(ItemVariant.of(inputStack), inputStack.getCount());
 			inputStack = ItemStack.EMPTY;
 		} else {
 			// Add only what is needed to reach max capacity
-			if (storeItemStack == ItemStack.EMPTY) {
-				storeItemStack = inputStack.copy();
-				storeItemStack.setCount(reminder);
-			} else {
-				addStoredItemCount(reminder);
-			}
+			addStored(ItemVariant.of(inputStack), reminder);
 			inputStack.decrement(reminder);
 		}
 
-		inventory.setHashChanged();
 		return inputStack;
 	}
 
 	// Creative function
 	private void fillToCapacity() {
-		storeItemStack = getStoredStack();
-		storeItemStack.setCount(maxCapacity);
+		setStored(storedItems.isResourceBlank() ? ItemVariant.of(inventory.getStack(OUTPUT_SLOT)) : storedItems.variant, maxCapacity);
+		storedItemsChanged = true;
 
 		inventory.setStack(OUTPUT_SLOT, ItemStack.EMPTY);
 	}
@@ -248,7 +242,7 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 	}
 
 	public int getCurrentCapacity() {
-		return storeItemStack.getCount() + inventory.getStack(OUTPUT_SLOT).getCount();
+		return (int) Math.min(storedItems.amount + inventory.getStack(OUTPUT_SLOT).getCount(), Integer.MAX_VALUE);
 	}
 
 	// MachineBaseBlockEntity
@@ -264,7 +258,7 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 		}
 
 		// Fill output slot with goodies when stored has items and output count is less than max stack size
-		if (storeItemStack.getCount() > 0 && inventory.getStack(OUTPUT_SLOT).getCount() < getStoredStack().getMaxCount()) {
+		if (storedItems.amount > 0 && inventory.getStack(OUTPUT_SLOT).getCount() < getStoredStack().getMaxCount()) {
 			populateOutput();
 		}
 
@@ -278,6 +272,12 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 			}
 		}
 
+		// Transfers can change the stored items many times a tick, save and sync them once
+		if (storedItemsChanged) {
+			storedItemsChanged = false;
+			markDirty();
+			syncWithAll();
+		}
 		if (inventory.hasChanged()) {
 			syncWithAll();
 			inventory.resetHasChanged();
@@ -305,14 +305,16 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 			this.type = TRContent.StorageUnit.QUANTUM;
 		}
 
-		storeItemStack = ItemStack.EMPTY;
+		ItemStack storedStack = ItemStack.EMPTY;
 
 		if (tagCompound.contains("storedStack")) {
-			storeItemStack = ItemStack.fromNbt(registryLookup, tagCompound.getCompound("storedStack")).orElseThrow();
+			storedStack = ItemStack.fromNbt(registryLookup, tagCompound.getCompound("storedStack")).orElseThrow();
 		}
 
-		if (!storeItemStack.isEmpty()) {
-			storeItemStack.setCount(Math.min(tagCompound.getInt("storedQuantity"), this.maxCapacity));
+		if (!storedStack.isEmpty()) {
+			setStored(ItemVariant.of(storedStack), Math.min(tagCompound.getLong("storedQuantity"), this.maxCapacity));
+		} else {
+			setStored(ItemVariant.blank(), 0);
 		}
 
 		// Renderer only
@@ -323,6 +325,8 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 		if (tagCompound.contains("lockedItem")) {
 			lockedItemStack = ItemStack.fromNbt(registryLookup, tagCompound.getCompound("lockedItem")).orElseThrow();
 		}
+
+		clientDisplayedStack = getStoredStack().copyWithCount(1);
 	}
 
 	@Override
@@ -331,13 +335,11 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 
 		tagCompound.putString("unitType", this.type.name());
 
-		if (!storeItemStack.isEmpty()) {
-			ItemStack temp = storeItemStack.copy();
-			if (storeItemStack.getCount() > storeItemStack.getMaxCount()) {
-				temp.setCount(storeItemStack.getMaxCount());
-			}
+		if (!storedItems.isResourceBlank()) {
+			ItemStack temp = storedItems.variant.toStack();
+			temp.setCount((int) Math.min(storedItems.amount, temp.getMaxCount()));
 			tagCompound.put("storedStack", temp.encode(registryLookup, new NbtCompound()));
-			tagCompound.putInt("storedQuantity", Math.min(storeItemStack.getCount(), maxCapacity));
+			tagCompound.putLong("storedQuantity", Math.min(storedItems.amount, maxCapacity));
 		} else {
 			tagCompound.putInt("storedQuantity", 0);
 		}
@@ -360,23 +362,20 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 			return;
 		}
 
-		if (storeItemStack != ItemStack.EMPTY) {
-			if (storeItemStack.getMaxCount() == 64) {
+		if (!storedItems.isResourceBlank()) {
+			ItemStack storedStack = storedItems.variant.toStack();
+			if (storedStack.getMaxCount() == 64) {
 				// Drop stacks (In one clump, reduce lag)
-				WorldUtils.dropItem(storeItemStack, world, pos);
+				WorldUtils.dropItem(storedItems.variant.toStack((int) storedItems.amount), world, pos);
 			} else {
-				int size = storeItemStack.getMaxCount();
+				int size = storedStack.getMaxCount();
 
-				for (int i = 0; i < storeItemStack.getCount() / size; i++) {
-					ItemStack toDrop = storeItemStack.copy();
-					toDrop.setCount(size);
-					WorldUtils.dropItem(toDrop, world, pos);
+				for (long i = 0; i < storedItems.amount / size; i++) {
+					WorldUtils.dropItem(storedItems.variant.toStack(size), world, pos);
 				}
 
-				if (storeItemStack.getCount() % size != 0) {
-					ItemStack toDrop = storeItemStack.copy();
-					toDrop.setCount(storeItemStack.getCount() % size);
-					WorldUtils.dropItem(toDrop, world, pos);
+				if (storedItems.amount % size != 0) {
+					WorldUtils.dropItem(storedItems.variant.toStack((int) (storedItems.amount % size)), world, pos);
 				}
 
 			}
@@ -404,7 +403,7 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 
 		if (isLocked()) {
 			//allow shulker bundle extraction when locked
-			if (ItemUtils.canExtractAnyFromShulker(inputStack, lockedItemStack)) {
+			if (inputStack.contains(DataComponentTypes.CONTAINER) && ItemUtils.canExtractAnyFromShulker(inputStack, lockedItemStack)) {
 				return true;
 			}
 			return ItemUtils.isItemEqual(lockedItemStack, inputStack, true, true);
@@ -417,6 +416,14 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 		return ItemUtils.isItemEqual(getStoredStack(), inputStack, true, true);
 	}
 
+	@Override
+	protected void addDescriptionFields(DescriptionSync sync) {
+		// What the renderer shows
+		sync.stack(this::getStoredStack, stack -> clientDisplayedStack = stack)
+			.field(PacketCodecs.VAR_INT, this::getCurrentCapacity, amount -> storedAmount = amount)
+			.stack(() -> lockedItemStack, stack -> lockedItemStack = stack);
+	}
+
 	@Override
 	public boolean canBeUpgraded() {
 		return false;
@@ -534,66 +541,133 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 
 	public void setStoredStackFromNBT(NbtCompound tag) {
 		if (!tag.contains("item")) {
-			storeItemStack = ItemStack.EMPTY;
+			setStored(ItemVariant.blank(), 0);
 		} else {
-			storeItemStack = ItemStack.fromNbt(world.getRegistryManager(), tag.getCompound("item")).orElseThrow();
+			ItemStack stack = ItemStack.fromNbt(world.getRegistryManager(), tag.getCompound("item")).orElseThrow();
+			setStored(ItemVariant.of(stack), tag.getInt("count"));
 		}
+	}
 
-		storeItemStack.setCount(tag.getInt("count"));
+	private boolean isSideEnabled(Direction side, boolean insert) {
+		SlotConfiguration slotConfiguration = getSlotConfiguration();
+		if (slotConfiguration == null) {
+			return false;
+		}
+		SlotConfiguration.SlotIO slotIO = slotConfiguration.getSlotDetails(insert ? INPUT_SLOT : OUTPUT_SLOT).getSideDetail(side).getSlotIO();
+		return insert ? slotIO.getIoConfig().isInsert() : slotIO.getIoConfig().isExtract();
 	}
 
-	private SlottedStorage<ItemVariant> getInternalStoreStorage(@Nullable Direction direction) {
+	public SingleSlotStorage<ItemVariant> getExposedStorage(@Nullable Direction direction) {
 		// Quick fix to handle null sides. https://github.com/TechReborn/TechReborn/issues/3175
 		final Direction side = direction != null ? direction : Direction.DOWN;
 
-		if (internalStoreStorage[side.getId()] == null) {
-			internalStoreStorage[side.getId()] = new SingleStackStorage() {
-				@Override
-				protected ItemStack getStack() {
-					return storeItemStack;
-				}
-
-				@Override
-				protected void setStack(ItemStack stack) {
-					if (stack.isEmpty()) {
-						// Ensure we maintain reference equality to EMPTY
-						storeItemStack = ItemStack.EMPTY;
-					} else {
-						storeItemStack = stack;
-					}
-				}
+		if (sideStorages[side.getId()] == null) {
+			sideStorages[side.getId()] = new SideStorage(side);
+		}
+		return sideStorages[side.getId()];
+	}
 
-				@Override
-				protected int getCapacity(ItemVariant itemVariant) {
-					// subtract capacity of output slot (super capacity is the default capacity)
-					return maxCapacity - super.getCapacity(itemVariant);
-				}
+	/**
+	 * The stored items, without the output slot. Inserting checks the same rules as the input slot.
+	 */
+	private class StoredItems extends SingleVariantStorage<ItemVariant> {
+		@Override
+		protected ItemVariant getBlankVariant() {
+			return ItemVariant.blank();
+		}
 
-				@Override
-				protected boolean canInsert(ItemVariant itemVariant) {
-					// Check insertion with the same rules as the input slot
-					return StorageUnitBaseBlockEntity.this.canInsert(INPUT_SLOT, itemVariant.toStack(), side);
-				}
+		@Override
+		protected long getCapacity(ItemVariant variant) {
+			// subtract the output slot, it counts towards the capacity
+			return Math.max(0, maxCapacity - inventory.getStack(OUTPUT_SLOT).getCount());
+		}
 
-				@Override
-				protected boolean canExtract(ItemVariant itemVariant) {
-					// Check extraction with the same rules as the output slot
-					return StorageUnitBaseBlockEntity.this.canExtract(OUTPUT_SLOT, itemVariant.toStack(), side);
-				}
+		@Override
+		protected boolean canInsert(ItemVariant variant) {
+			if (isLocked()) {
+				return variant.matches(lockedItemStack);
+			}
+			if (!isResourceBlank()) {
+				// Only called for the stored variant, which was validated when first inserted
+				return true;
+			}
+			ItemStack output = inventory.getStack(OUTPUT_SLOT);
+			if (!output.isEmpty()) {
+				return variant.matches(output);
+			}
+			return isValid(INPUT_SLOT, variant.toStack());
+		}
 
-				@Override
-				protected void onFinalCommit() {
-					inventory.setHashChanged();
-				}
-			};
+		@Override
+		protected void onFinalCommit() {
+			storedItemsChanged = true;
 		}
-		return internalStoreStorage[side.getId()];
 	}
 
-	public Storage<ItemVariant> getExposedStorage(Direction side) {
-		return new CombinedSlottedStorage<>(List.of(
-				getInternalStoreStorage(side),
-				InventoryStorage.of(this, side)
-		));
+	/**
+	 * The whole unit as seen from one side: inserts into the stored items, extracts from them and then from the
+	 * output slot, following the slot configuration of that side.
+	 */
+	private class SideStorage implements SingleSlotStorage<ItemVariant> {
+		private final Direction side;
+		@Nullable
+		private SingleSlotStorage<ItemVariant> outputSlot;
+
+		private SideStorage(Direction side) {
+			this.side = side;
+		}
+
+		private SingleSlotStorage<ItemVariant> getOutputSlot() {
+			if (outputSlot == null) {
+				outputSlot = InventoryStorage.of(StorageUnitBaseBlockEntity.this, side).getSlot(OUTPUT_SLOT);
+			}
+			return outputSlot;
+		}
+
+		@Override
+		public long insert(ItemVariant resource, long maxAmount, TransactionContext transaction) {
+			StoragePreconditions.notBlankNotNegative(resource, maxAmount);
+			if (!isSideEnabled(side, true)) {
+				return 0;
+			}
+			return storedItems.insert(resource, maxAmount, transaction);
+		}
+
+		@Override
+		public long extract(ItemVariant resource, long maxAmount, TransactionContext transaction) {
+			StoragePreconditions.notBlankNotNegative(resource, maxAmount);
+			if (!isSideEnabled(side, false)) {
+				return 0;
+			}
+			long extracted = storedItems.extract(resource, maxAmount, transaction);
+			if (extracted < maxAmount) {
+				extracted += getOutputSlot().extract(resource, maxAmount - extracted, transaction);
+			}
+			return extracted;
+		}
+
+		@Override
+		public boolean isResourceBlank() {
+			return storedItems.isResourceBlank() && inventory.getStack(OUTPUT_SLOT).isEmpty();
+		}
+
+		@Override
+		public ItemVariant getResource() {
+			return storedItems.isResourceBlank() ? ItemVariant.of(inventory.getStack(OUTPUT_SLOT)) : storedItems.getResource();
+		}
+
+		@Override
+		public long getAmount() {
+			ItemStack output = inventory.getStack(OUTPUT_SLOT);
+			if (storedItems.isResourceBlank()) {
+				return output.getCount();
+			}
+			return storedItems.getAmount() + (storedItems.variant.matches(output) ? output.getCount() : 0);
+		}
+
+		@Override
+		public long getCapacity() {
+			return maxCapacity;
+		}
 	}
 }
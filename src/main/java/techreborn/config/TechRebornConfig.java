@@ -667,6 +667,9 @@ public class TechRebornConfig {
 	@Config(config = "machines", category = "pump", key = "PumpIterateOutwards", comment = "If true then the pump will collect closest fluid and scan outwards")
 	public static boolean pumpIterateOutwards = false;
 
+	@Config(config = "machines", category = "pump", key = "PumpBlocksPerTick", comment = "How many blocks the pump checks per tick while searching for fluid")
+	public static int pumpBlocksPerTick = 2048;
+
 	// Misc
 	@Config(config = "misc", category = "general", key = "IC2TransformersStyle", comment = "Input from dots side, output from other sides, like in IC2.")
 	public static boolean IC2TransformersStyle = true;
@@ -707,6 +710,9 @@ public class TechRebornConfig {
 	@Config(config = "misc", category = "cable", key = "uninsulatedElectrocutionParticles", comment = "When true an uninsulated cable will create a spark when an entity touches it")
 	public static boolean uninsulatedElectrocutionParticles = true;
 
+	@Config(config = "misc", category = "cable", key = "rotateCableTargets", comment = "When true cable networks rotate the order in which they serve machines every tick instead of shuffling it")
+	public static boolean rotateCableTargets = false;
+
 	// World
 	@Config(config = "world", category = "loot", key = "enableOverworldLoot", comment = "When true TechReborn will add ingots, machine frames and circuits to OverWorld loot chests.")
 	public static boolean enableOverworldLoot = true;
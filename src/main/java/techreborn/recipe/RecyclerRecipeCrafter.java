@@ -90,4 +90,10 @@ public class RecyclerRecipeCrafter extends RecipeCrafter {
 			super.fitStack(stack, slot);
 		}
 	}
+
+	@Override
+	protected boolean supportsBatchCrafting() {
+		// Every craft rolls its own output.
+		return false;
+	}
 }
@@ -66,4 +66,10 @@ public class ScrapboxRecipeCrafter extends RecipeCrafter {
 		this.currentTickTime = 0;
 		setIsActive();
 	}
+
+	@Override
+	protected boolean supportsBatchCrafting() {
+		// Every craft rolls its own output.
+		return false;
+	}
 }